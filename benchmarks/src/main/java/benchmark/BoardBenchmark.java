@@ -0,0 +1,57 @@
+package benchmark;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChessBoard} setup, equality and hashing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    @Param
+    public Position position;
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+    private final ChessBoard resetTarget = new ChessBoard();
+
+    @Setup
+    public void setUp() {
+        board = position.newBoard();
+        equalBoard = position.newBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        resetTarget.resetBoard();
+        return resetTarget;
+    }
+
+    @Benchmark
+    public boolean equalsBoard() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+}
@@ -0,0 +1,113 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rules queries on a {@link ChessGame} for the team whose turn it is.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param
+    public Position position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor team;
+    private ChessMove firstMove;
+    private int firstPackedMove;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        game = position.newGame();
+        team = game.getTeamTurn();
+        game.allValidMoves(team, moves);
+        firstPackedMove = moves.get(0);
+        firstMove = ChessMove.unpack(firstPackedMove);
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                blackhole.consume(game.validMoves(ChessPosition.of(row, col)));
+            }
+        }
+    }
+
+    @Benchmark
+    public int allValidMovesPacked() {
+        moves.clear();
+        game.allValidMoves(team, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.unmakeMove();
+        return game;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(team);
+    }
+
+    // Warm: the board is unchanged between calls, so these read the cached status
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(team);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(team);
+    }
+
+    // Cold: playing and taking back a move invalidates the cached status, so
+    // these regenerate moves each time; subtract makeMovePacked for the check itself
+    @Benchmark
+    public boolean isInCheckmateCold() {
+        game.makeMove(firstPackedMove);
+        game.unmakeMove();
+        return game.isInCheckmate(team);
+    }
+
+    @Benchmark
+    public boolean isInStalemateCold() {
+        game.makeMove(firstPackedMove);
+        game.unmakeMove();
+        return game.isInStalemate(team);
+    }
+
+    @Benchmark
+    public ChessGame makeMovePacked() {
+        game.makeMove(firstPackedMove);
+        game.unmakeMove();
+        return game;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation for every piece of one type (both teams) in a
+ * position. Positions without any piece of the type measure only loop overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+
+    @Param
+    public Position position;
+
+    @Param
+    public ChessPiece.PieceType pieceType;
+
+    private ChessBoard board;
+    private ChessPiece[] pieces;
+    private ChessPosition[] squares;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        board = position.newBoard();
+        List<ChessPiece> foundPieces = new ArrayList<>();
+        List<ChessPosition> foundSquares = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(square);
+                if (piece != null && piece.getPieceType() == pieceType) {
+                    foundPieces.add(piece);
+                    foundSquares.add(square);
+                }
+            }
+        }
+        pieces = foundPieces.toArray(new ChessPiece[0]);
+        squares = foundSquares.toArray(new ChessPosition[0]);
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < pieces.length; i++) {
+            blackhole.consume(pieces[i].pieceMoves(board, squares[i]));
+        }
+    }
+
+    @Benchmark
+    public int pieceMovesPacked() {
+        moves.clear();
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i].pieceMoves(board, squares[i], moves);
+        }
+        return moves.size();
+    }
+}
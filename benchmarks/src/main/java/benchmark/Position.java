@@ -0,0 +1,33 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * The positions every benchmark runs against, one per phase of the game.
+ */
+public enum Position {
+    OPENING("r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b - - 3 3"),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"),
+    ENDGAME("8/8/3k4/3p1p2/3P1P2/2K5/6R1/8 w - - 0 1");
+
+    private final String fen;
+
+    Position(String fen) {
+        this.fen = fen;
+    }
+
+    /**
+     * @return a new game set up at this position
+     */
+    public ChessGame newGame() {
+        return ChessGame.fromFen(fen);
+    }
+
+    /**
+     * @return a new board set up at this position
+     */
+    public ChessBoard newBoard() {
+        return ChessBoard.fromFen(fen);
+    }
+}
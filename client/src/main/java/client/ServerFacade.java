@@ -10,9 +10,12 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 
 import model.AuthData;
-import model.GameData;
+import model.GameSummary;
+import serialization.Serializer;
 
 public class ServerFacade {
+    private static final Gson GSON = Serializer.gson();
+
     private final HttpClient client = HttpClient.newHttpClient();
     private final String serverUrl;
 
@@ -41,7 +44,7 @@ public class ServerFacade {
     // Helper to create request body
     private BodyPublisher makeRequestBody(Object body) {
         if (body != null) {
-            return BodyPublishers.ofString(new Gson().toJson(body));
+            return BodyPublishers.ofString(GSON.toJson(body));
         }
         return BodyPublishers.noBody();
     }
@@ -65,7 +68,7 @@ public class ServerFacade {
         }
 
         if (responseClass != null) {
-            return new Gson().fromJson(response.body(), responseClass);
+            return GSON.fromJson(response.body(), responseClass);
         }
         return null;
     }
@@ -73,7 +76,7 @@ public class ServerFacade {
     // Helper method to extract user-friendly error messages
     private String extractErrorMessage(String responseBody, int statusCode) {
         try {
-            var errorResponse = new Gson().fromJson(responseBody, ErrorResponse.class);
+            var errorResponse = GSON.fromJson(responseBody, ErrorResponse.class);
             if (errorResponse != null && errorResponse.message != null) {
                 String message = errorResponse.message;
                 if (message.startsWith("Error: ")) {
@@ -137,7 +140,7 @@ public class ServerFacade {
         return handleResponse(response, CreateGameResult.class);
     }
 
-    public record ListGamesResult(GameData[] games) {}
+    public record ListGamesResult(GameSummary[] games, Integer nextCursor) {}
 
     // List all games
     public ListGamesResult listGames(String authToken) throws Exception {
@@ -146,6 +149,14 @@ public class ServerFacade {
         return handleResponse(response, ListGamesResult.class);
     }
 
+    // List one page of games; cursor is the previous page's nextCursor, or 0 for the first page
+    public ListGamesResult listGames(String authToken, int pageSize, int cursor) throws Exception {
+        var path = String.format("/game?pageSize=%d&cursor=%d", pageSize, cursor);
+        var request = buildRequest("GET", path, null, authToken);
+        var response = sendRequest(request);
+        return handleResponse(response, ListGamesResult.class);
+    }
+
     private record JoinGameRequest(String playerColor, int gameID) {}
 
     // Join a game
@@ -1,7 +1,7 @@
 package ui;
 
 import client.ServerFacade;
-import model.GameData;
+import model.GameSummary;
 import java.util.Arrays;
 
 import static ui.EscapeSequences.*;
@@ -11,7 +11,7 @@ public class ChessClient {
     private String authToken = null;
     private final ServerFacade server;
     private State state = State.LOGGED_OUT;
-    private GameData[] games = null;
+    private GameSummary[] games = null;
 
     private enum State {
         LOGGED_OUT,
@@ -0,0 +1,252 @@
+package dataaccess;
+
+import model.AuthData;
+import model.GameData;
+import model.GameSummary;
+import model.UserData;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Wraps another DataAccess and caches getAuth results, since every
+ * authenticated request starts with a token lookup. Unknown tokens are cached
+ * too, for a shorter time, so repeated bad tokens don't each reach the
+ * database. Everything else passes straight through.
+ * <p>
+ * The cache holds about a fixed number of tokens and entries expire after a
+ * TTL. It is split into segments by token, each an access-ordered map behind
+ * its own lock, so concurrent requests rarely queue behind each other and a
+ * full segment drops its least recently used token in constant time.
+ * deleteAuth and clearAuths invalidate it immediately; logouts made through
+ * another server sharing the same database are only seen once the entry
+ * expires.
+ */
+public class CachingDataAccess implements DataAccess {
+    private static final int MAX_SEGMENTS = 16;
+    // Small caches keep one segment, so eviction is exactly least recently used
+    private static final int MIN_SEGMENT_SIZE = 256;
+
+    private final DataAccess delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+    private final Segment[] segments;
+    // Bumped by every invalidation, before the entry is removed
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Cache counters since startup. A hit is a lookup answered from the cache,
+     * including negativeHits, which answered "no such token".
+     */
+    public record Stats(long hits, long negativeHits, long misses, long evictions, long expirations, int size) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(AuthData auth, long expiresAt) {
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        // Access ordered, so the first entry is the least recently used
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final int maxSize;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public CachingDataAccess(DataAccess delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, maxSize, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    CachingDataAccess(DataAccess delegate, int maxSize, long ttlMillis, long negativeTtlMillis, LongSupplier clock) {
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.clock = clock;
+
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(Math.max(1, (maxSize + count - 1) / count));
+        }
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+        return new Stats(hits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size);
+    }
+
+    // AUTH
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+
+        long now = clock.getAsLong();
+        long startGeneration = generation.get();
+        Segment segment = segmentFor(authToken);
+        Entry entry;
+        segment.lock.lock();
+        try {
+            entry = segment.entries.get(authToken);
+            if (entry != null && now - entry.expiresAt() >= 0) {
+                segment.entries.remove(authToken);
+                expirations.increment();
+                entry = null;
+            }
+        }
+        finally {
+            segment.lock.unlock();
+        }
+        if (entry != null) {
+            hits.increment();
+            if (entry.auth() == null) {
+                negativeHits.increment();
+            }
+            return entry.auth();
+        }
+
+        misses.increment();
+        AuthData auth = delegate.getAuth(authToken);
+        var fresh = new Entry(auth, now + (auth == null ? negativeTtlNanos : ttlNanos));
+        segment.lock.lock();
+        try {
+            // A deleteAuth that ran during the lookup may have made this result stale
+            if (generation.get() == startGeneration) {
+                segment.entries.put(authToken, fresh);
+                if (segment.entries.size() > segment.maxSize) {
+                    var eldest = segment.entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evictions.increment();
+                }
+            }
+        }
+        finally {
+            segment.lock.unlock();
+        }
+        return auth;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        invalidate(auth.authToken());
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+        invalidate(authToken);
+    }
+
+    @Override
+    public void clearAuths() throws DataAccessException {
+        delegate.clearAuths();
+        generation.incrementAndGet();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.entries.clear();
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private void invalidate(String authToken) {
+        // Bumped first, so a lookup that has not stored its entry yet sees it and skips storing
+        generation.incrementAndGet();
+        Segment segment = segmentFor(authToken);
+        segment.lock.lock();
+        try {
+            segment.entries.remove(authToken);
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(String authToken) {
+        int hash = authToken.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    // USER
+
+    @Override
+    public void clearUsers() throws DataAccessException {
+        delegate.clearUsers();
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    // GAME
+
+    @Override
+    public void clearGames() throws DataAccessException {
+        delegate.clearGames();
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        delegate.updateGame(game);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        return delegate.listGameSummaries(afterGameID, limit);
+    }
+
+    @Override
+    public void appendMove(int gameID, int move) throws DataAccessException {
+        delegate.appendMove(gameID, move);
+    }
+}
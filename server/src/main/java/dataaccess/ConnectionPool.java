@@ -0,0 +1,369 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of MySQL connections. Callers borrow a connection with
+ * {@link #borrow()} and give it back by closing it, so existing
+ * try-with-resources blocks keep working unchanged.
+ * <p>
+ * The pool keeps at least its minimum size of connections open; idle
+ * connections above that are closed once they have been idle longer than the
+ * idle timeout. A connection that has sat idle for a while is validated
+ * before it is handed out. A connection held longer than the leak
+ * detection threshold is logged along with the stack that borrowed it.
+ * <p>
+ * The pool's state is guarded by a {@link ReentrantLock} rather than a
+ * monitor, so a virtual thread waiting for a connection unmounts from its
+ * carrier instead of pinning it.
+ */
+class ConnectionPool {
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+
+    // Connections used more recently than this are handed out without validation
+    private static final long VALIDATION_INTERVAL_MILLIS = 500;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String catalog;
+    private final Settings settings;
+
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int total;
+    private boolean closed;
+
+    /**
+     * Pool sizes and timeouts, all times in milliseconds. minSize counts
+     * every open connection, borrowed or idle. A leak detection threshold of 0
+     * turns leak detection off.
+     */
+    record Settings(int minSize, int maxSize, long connectionTimeout, long idleTimeout,
+                    long validationTimeout, long leakDetectionThreshold) {
+    }
+
+    ConnectionPool(String url, String username, String password, String catalog, Settings settings) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.catalog = catalog;
+        this.settings = settings;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(settings.idleTimeout(), 30_000) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes an idle connection, opens a new one if the pool is not full, or
+     * waits up to the connection timeout for one to be returned.
+     */
+    Connection borrow() throws SQLException {
+        long deadline = System.currentTimeMillis() + settings.connectionTimeout();
+        while (true) {
+            PooledConnection pooled = null;
+            boolean open = false;
+            lock.lock();
+            try {
+                while (!closed && idle.isEmpty() && total >= settings.maxSize()) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + settings.connectionTimeout()
+                                + "ms waiting for a connection; " + borrowed.size() + " in use");
+                    }
+                    try {
+                        available.await(remaining, TimeUnit.MILLISECONDS);
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a connection", ex);
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    pooled = idle.pollFirst();
+                }
+                else {
+                    total++;
+                    open = true;
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+
+            if (open) {
+                try {
+                    pooled = new PooledConnection(openConnection());
+                }
+                catch (SQLException ex) {
+                    discarded();
+                    throw ex;
+                }
+            }
+            else if (!isUsable(pooled)) {
+                closeQuietly(pooled.connection);
+                discarded();
+                continue;
+            }
+
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowedBy = (settings.leakDetectionThreshold() > 0) ? new Exception("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops handing out new ones. Borrowed
+     * connections are closed as they are returned.
+     */
+    void close() {
+        housekeeper.shutdownNow();
+        lock.lock();
+        try {
+            closed = true;
+            for (var pooled : idle) {
+                closeQuietly(pooled.connection);
+            }
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(url, username, password);
+        conn.setCatalog(catalog);
+        return conn;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.returnedAt < VALIDATION_INTERVAL_MILLIS) {
+            return true;
+        }
+        try {
+            int seconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(settings.validationTimeout()));
+            return pooled.connection.isValid(seconds);
+        }
+        catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        boolean healthy = reset(pooled.connection);
+        lock.lock();
+        try {
+            if (healthy && !closed) {
+                pooled.returnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                available.signalAll();
+                return;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        closeQuietly(pooled.connection);
+        discarded();
+    }
+
+    /*
+     * Undoes anything a borrower may have changed so the next borrower gets a
+     * connection in the default state.
+     */
+    private boolean reset(Connection conn) {
+        try {
+            if (conn.isClosed()) {
+                return false;
+            }
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+            if (!catalog.equals(conn.getCatalog())) {
+                conn.setCatalog(catalog);
+            }
+            conn.clearWarnings();
+            return true;
+        }
+        catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void discarded() {
+        lock.lock();
+        try {
+            total--;
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void housekeep() {
+        fillToMinimum();
+
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            // Oldest idle connections are at the back
+            Iterator<PooledConnection> oldest = idle.descendingIterator();
+            while (oldest.hasNext() && total > settings.minSize()) {
+                var pooled = oldest.next();
+                if (now - pooled.returnedAt < settings.idleTimeout()) {
+                    break;
+                }
+                oldest.remove();
+                total--;
+                closeQuietly(pooled.connection);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (settings.leakDetectionThreshold() > 0) {
+            for (var pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > settings.leakDetectionThreshold()) {
+                    pooled.leakReported = true;
+                    LOG.warn("Connection held for {}ms, possible leak", now - pooled.borrowedAt, pooled.borrowedBy);
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= settings.minSize()) {
+                    return;
+                }
+                total++;
+            }
+            finally {
+                lock.unlock();
+            }
+
+            PooledConnection pooled;
+            try {
+                pooled = new PooledConnection(openConnection());
+            }
+            catch (SQLException ex) {
+                discarded();
+                LOG.warn("Unable to open idle connection: {}", ex.getMessage());
+                return;
+            }
+            pooled.returnedAt = System.currentTimeMillis();
+            giveBack(pooled);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        }
+        catch (SQLException ignored) {
+            // Already broken, nothing more to do
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool. Each borrow hands out a new
+     * proxy whose close returns the connection, so a stale handle kept after
+     * close cannot touch the connection's next borrower.
+     */
+    private class PooledConnection {
+        final Connection connection;
+        long borrowedAt;
+        long returnedAt;
+        Exception borrowedBy;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection newHandle() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean handleClosed;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!handleClosed) {
+                                handleClosed = true;
+                                giveBack(PooledConnection.this);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return handleClosed || connection.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled" + connection;
+                        }
+                        default -> {
+                            if (handleClosed) {
+                                throw new SQLException("Connection has been returned to the pool");
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, handler);
+        }
+    }
+}
@@ -2,9 +2,10 @@ package dataaccess;
 
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 
-import java.util.Collection;
+import java.util.List;
 
 public interface DataAccess {
     void clearUsers() throws DataAccessException;
@@ -12,15 +13,38 @@ public interface DataAccess {
     UserData getUser(String username) throws DataAccessException;
 
     void clearGames() throws DataAccessException;
-    void createGame(GameData game) throws DataAccessException;
+    /**
+     * Stores a new game. A gameID of 0 asks the store to assign the next free
+     * ID; any other ID is used as given and must not already exist.
+     *
+     * @return the stored game's ID
+     */
+    int createGame(GameData game) throws DataAccessException;
+    /**
+     * Replaces a stored game's players, name and state. The game's board must
+     * match the stored game's, so a copy read before later moves is refused
+     * instead of overwriting them.
+     */
     void updateGame(GameData game) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
-    Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Lists games in gameID order without loading their boards. Pass the last
+     * gameID of one page as afterGameID to get the next page.
+     *
+     * @param afterGameID only games with a greater ID are listed; 0 starts at the beginning
+     * @param limit       the most games to return
+     */
+    List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException;
+
+    /**
+     * Records a packed move (see {@link chess.MoveList}) as the next move of a
+     * stored game. The move must already have been validated against the game.
+     */
+    void appendMove(int gameID, int move) throws DataAccessException;
 
     void clearAuths() throws DataAccessException;
     void createAuth(AuthData auth) throws DataAccessException;
     void deleteAuth(String authToken) throws DataAccessException;
     AuthData getAuth(String authToken) throws DataAccessException;
-
-    int getNextGameID();
 }
@@ -8,6 +8,8 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    private static ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,10 +32,11 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the pool, with the catalog set
+     * based upon the properties specified in db.properties. Connections to the
+     * database should be short-lived, and you must close the connection when you
+     * are done with it, which returns it to the pool. The easiest way to do that
+     * is with a try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -44,14 +47,33 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().borrow();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /*
+     * The pool is created on first use rather than when the class loads, since
+     * its connections need the database that createDatabase makes.
+     */
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(connectionUrl, dbUsername, dbPassword, databaseName, poolSettings);
+        }
+        return pool;
+    }
+
+    /**
+     * Closes the pool's connections. A later getConnection opens a new pool.
+     */
+    static public synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -72,6 +94,20 @@ public class DatabaseManager {
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        // Server-side prepared statements, cached per connection, so the pool's
+        // long-lived connections parse each SQL string once
+        var options = props.getProperty("db.connectionOptions",
+                "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048");
+        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port) + (options.isBlank() ? "" : "?" + options);
+
+        // Optional pool tuning; times are in milliseconds and a leak detection
+        // threshold of 0 disables leak warnings
+        poolSettings = new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.connectionTimeout", "30000")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeout", "600000")),
+                Long.parseLong(props.getProperty("db.pool.validationTimeout", "5000")),
+                Long.parseLong(props.getProperty("db.pool.leakDetectionThreshold", "0")));
     }
 }
@@ -1,60 +1,165 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessGameCodec;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
 import model.UserData;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps everything in concurrent maps, so one instance can serve many request
+ * threads at once. Each update of a single user, game or auth is atomic.
+ * <p>
+ * Stored games are never handed out: they are copied on the way in and out,
+ * so callers can't change them behind the store's back. Reading, updating
+ * or adding a move to a game holds one of a fixed set of locks picked by
+ * gameID, so work on one game is serialized without making unrelated games
+ * wait on each other.
+ */
 public class MemoryDataAccess implements DataAccess {
-    private final Map<String, UserData> users = new HashMap<>();
-    private final Map<Integer, GameData> games = new HashMap<>();
-    private final Map<String, AuthData> auths = new HashMap<>();
-    private int nextGameID = 1;
+    private final ConcurrentMap<String, UserData> users = new ConcurrentHashMap<>();
+    // Sorted by gameID, so a page of summaries starts straight at its cursor
+    private final ConcurrentNavigableMap<Integer, GameData> games = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, AuthData> auths = new ConcurrentHashMap<>();
+    private final PasswordHasher hasher;
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
+
+    // A power of two, so a gameID picks its stripe with a mask
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] gameLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public MemoryDataAccess() {
+        this(PasswordHasher.defaultHasher());
+    }
+
+    public MemoryDataAccess(PasswordHasher hasher) {
+        this.hasher = hasher;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            gameLocks[i] = new ReentrantLock();
+        }
+    }
 
     public void clearUsers() throws DataAccessException {
         users.clear();
     }
 
     public void createUser(UserData user) throws DataAccessException {
+        // Checked first to skip the hash for a taken name, and again when storing
         if (users.containsKey(user.username())) {
             throw new DataAccessException("User already exists");
         }
-        users.put(user.username(), user);
+        var hashed = new UserData(user.username(), hasher.hash(user.password()), user.email());
+        if (users.putIfAbsent(user.username(), hashed) != null) {
+            throw new DataAccessException("User already exists");
+        }
     }
 
     public UserData getUser(String username) throws DataAccessException {
-        return users.get(username);
+        return (username == null) ? null : users.get(username);
     }
 
     public void clearGames() throws DataAccessException {
         games.clear();
-        nextGameID = 1;
+        nextGameID.set(1);
     }
 
-    public void createGame(GameData game) throws DataAccessException {
-        games.put(game.gameID(), game);
+    public int createGame(GameData game) throws DataAccessException {
+        if (game.gameID() != 0) {
+            if (games.putIfAbsent(game.gameID(), copy(game)) != null) {
+                throw new DataAccessException("Game already exists");
+            }
+            // Like AUTO_INCREMENT, later assigned IDs continue past explicit ones
+            nextGameID.accumulateAndGet(game.gameID() + 1, Math::max);
+            return game.gameID();
+        }
+
+        while (true) {
+            int gameID = nextGameID.getAndIncrement();
+            var assigned = new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                    copy(game.game()));
+            if (games.putIfAbsent(gameID, assigned) == null) {
+                return gameID;
+            }
+        }
     }
 
     public GameData getGame(int gameID) throws DataAccessException {
-        return games.get(gameID);
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData stored = games.get(gameID);
+            return (stored == null) ? null : copy(stored);
+        }
+        finally {
+            lock.unlock();
+        }
     }
 
-    public Collection<GameData> listGames() throws DataAccessException {
-        return games.values();
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        var page = new ArrayList<GameSummary>();
+        for (GameData game : games.tailMap(afterGameID, false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName()));
+        }
+        return page;
     }
 
     public void updateGame(GameData game) throws DataAccessException {
-        if (!games.containsKey(game.gameID())) {
-            throw new DataAccessException("Game not found");
+        ReentrantLock lock = lockFor(game.gameID());
+        lock.lock();
+        try {
+            GameData stored = games.get(game.gameID());
+            if (stored == null) {
+                throw new DataAccessException("Game not found");
+            }
+            if (!stored.game().equals(game.game())) {
+                throw new DataAccessException("Game has changed since it was read");
+            }
+            games.put(game.gameID(), copy(game));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void appendMove(int gameID, int move) throws DataAccessException {
+        ReentrantLock lock = lockFor(gameID);
+        lock.lock();
+        try {
+            GameData stored = games.get(gameID);
+            if (stored == null) {
+                throw new DataAccessException("Game not found");
+            }
+            stored.game().applyMove(move);
+        }
+        finally {
+            lock.unlock();
         }
-        games.put(game.gameID(), game);
     }
 
-    public  int getNextGameID() {
-        return nextGameID++;
+    private ReentrantLock lockFor(int gameID) {
+        return gameLocks[gameID & (LOCK_STRIPES - 1)];
+    }
+
+    private static GameData copy(GameData game) {
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                copy(game.game()));
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        return ChessGameCodec.decode(ChessGameCodec.encode(game));
     }
 
     public void clearAuths() throws DataAccessException {
@@ -65,11 +170,14 @@ public class MemoryDataAccess implements DataAccess {
         auths.put(auth.authToken(), auth);
     }
 
+    // Concurrent maps reject null keys, and a request may have no token at all
     public AuthData getAuth(String authToken) throws DataAccessException {
-        return auths.get(authToken);
+        return (authToken == null) ? null : auths.get(authToken);
     }
 
     public void deleteAuth(String authToken) throws DataAccessException {
-        auths.remove(authToken);
+        if (authToken != null) {
+            auths.remove(authToken);
+        }
     }
 }
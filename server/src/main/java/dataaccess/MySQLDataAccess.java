@@ -1,55 +1,71 @@
 package dataaccess;
 
+import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.ChessPiece;
+import chess.ChessPosition;
 
 import model.UserData;
 import model.GameData;
+import model.GameSummary;
 import model.AuthData;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
-import com.google.gson.Gson;
-import org.mindrot.jbcrypt.BCrypt;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
 
 public class MySQLDataAccess implements DataAccess {
-    private int nextGameID = 1;
+    // A fresh snapshot is written every this many moves, bounding how many
+    // moves getGame has to replay
+    static final int SNAPSHOT_INTERVAL = 32;
+
+    // Mappers read columns by position, in the order the SELECTs below list them
+    private static final RowMapper<UserData> USER = MySQLDataAccess::readUser;
+    private static final RowMapper<AuthData> AUTH = MySQLDataAccess::readAuth;
+    private static final RowMapper<GameData> GAME = MySQLDataAccess::readGame;
+    private static final RowMapper<GameSummary> GAME_SUMMARY = MySQLDataAccess::readGameSummary;
+    private static final RowMapper<Integer> INT = rs -> rs.getInt(1);
+
+    private static final String SELECT_USER = "SELECT username, password, email FROM user WHERE username=?";
+    private static final String SELECT_AUTH = "SELECT authToken, username FROM auth WHERE authToken=?";
+    private static final String SELECT_GAME =
+            "SELECT gameID, whiteUsername, blackUsername, gameName, game, snapshotPly FROM game WHERE gameID=?";
+    // Walks the primary key index from the cursor, so each page costs the same however deep it is
+    private static final String SELECT_GAME_SUMMARIES =
+            "SELECT gameID, whiteUsername, blackUsername, gameName FROM game WHERE gameID>? ORDER BY gameID LIMIT ?";
+
+    private final PasswordHasher hasher;
 
     public MySQLDataAccess() throws DataAccessException {
+        this(PasswordHasher.defaultHasher());
+    }
+
+    public MySQLDataAccess(PasswordHasher hasher) throws DataAccessException {
+        this.hasher = hasher;
         configureDatabase();
-        initializeNextGameID();
     }
 
     // USER
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+        String hashedPassword = hasher.hash(user.password());
         var statement = "INSERT INTO user (username, password, email) VALUES (?, ?, ?)";
         executeUpdate(statement, user.username(), hashedPassword, user.email());
     }
 
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT username, password, email FROM user WHERE username=?";
-            try (var ps = conn.prepareStatement(statement)) {
-                ps.setString(1, username);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readUser(rs);
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            throw new DataAccessException("Unable to read data: " + e.getMessage());
-        }
-        return null;
+        return queryOne(SELECT_USER, USER, username);
     }
 
     @Override
@@ -58,10 +74,10 @@ public class MySQLDataAccess implements DataAccess {
         executeUpdate(statement);
     }
 
-    private UserData readUser(ResultSet rs) throws SQLException {
-        var username = rs.getString("username");
-        var password = rs.getString("password");
-        var email = rs.getString("email");
+    private static UserData readUser(ResultSet rs) throws SQLException {
+        var username = rs.getString(1);
+        var password = rs.getString(2);
+        var email = rs.getString(3);
         return new UserData(username, password, email);
     }
 
@@ -75,21 +91,7 @@ public class MySQLDataAccess implements DataAccess {
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT authToken, username FROM auth WHERE authToken=?";
-            try (var ps = conn.prepareStatement(statement)) {
-                ps.setString(1, authToken);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readAuth(rs);
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            throw new DataAccessException("Unable to read data: " + e.getMessage());
-        }
-        return null;
+        return queryOne(SELECT_AUTH, AUTH, authToken);
     }
 
     @Override
@@ -104,105 +106,194 @@ public class MySQLDataAccess implements DataAccess {
         executeUpdate(statement);
     }
 
-    private AuthData readAuth(ResultSet rs) throws SQLException {
-        var authToken = rs.getString("authToken");
-        var username = rs.getString("username");
+    private static AuthData readAuth(ResultSet rs) throws SQLException {
+        var authToken = rs.getString(1);
+        var username = rs.getString(2);
         return new AuthData(authToken, username);
     }
 
     // GAME
     @Override
-    public void createGame(GameData game) throws DataAccessException {
-        var json = new Gson().toJson(game.game());
+    public int createGame(GameData game) throws DataAccessException {
+        var bytes = ChessGameCodec.encode(game.game());
+        if (game.gameID() == 0) {
+            var statement = "INSERT INTO game (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+            return executeInsert(statement, game.whiteUsername(), game.blackUsername(), game.gameName(), bytes);
+        }
+
         var statement = "INSERT INTO game (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
-        executeUpdate(statement, game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), json);
+        executeUpdate(statement, game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), bytes);
+        return game.gameID();
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game WHERE gameID=?";
-            try (var ps = conn.prepareStatement(statement)) {
-                ps.setInt(1, gameID);
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readGame(rs);
-                    }
-                }
-            }
+            return loadGame(conn, gameID);
         }
         catch (Exception e) {
             throw new DataAccessException("Unable to read data: " + e.getMessage());
         }
-        return null;
     }
 
+    /*
+     * Writes the game as a new snapshot covering every move logged so far.
+     * The game's board must be the stored game's current board; a caller
+     * holding a copy from before later moves is refused rather than allowed
+     * to overwrite them.
+     */
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        var json = new Gson().toJson(game.game());
-        var statement = "UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, game=? WHERE gameID=?";
-        executeUpdate(statement, game.whiteUsername(), game.blackUsername(), game.gameName(), json, game.gameID());
+        try (var conn = DatabaseManager.getConnection()) {
+            // Read first, so a move logged while the game loads fails the check below
+            int ply = queryOne(conn, "SELECT COALESCE(MAX(ply), 0) FROM game_moves WHERE gameID=?", INT, game.gameID());
+            var current = loadGame(conn, game.gameID());
+            if (current == null) {
+                return;
+            }
+            if (!current.game().equals(game.game())) {
+                throw new DataAccessException("Game has changed since it was read");
+            }
+
+            // Skips the write if a move was logged after the ply the board was checked against
+            var statement = """
+                    UPDATE game SET whiteUsername=?, blackUsername=?, gameName=?, game=?, snapshotPly=?
+                    WHERE gameID=? AND NOT EXISTS (SELECT 1 FROM game_moves WHERE gameID=? AND ply>?)
+                    """;
+            int updated = executeUpdate(conn, statement, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                    ChessGameCodec.encode(game.game()), ply, game.gameID(), game.gameID(), ply);
+            if (updated == 0) {
+                throw new DataAccessException("Game has changed since it was read");
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("unable to update database: " + e.getMessage());
+        }
     }
 
     @Override
-    public Collection<GameData> listGames() throws DataAccessException {
-        var result = new ArrayList<GameData>();
+    public void appendMove(int gameID, int move) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM game";
-            try (var ps = conn.prepareStatement(statement)) {
-                try (var rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        result.add(readGame(rs));
-                    }
-                }
+            var statement = """
+                    SELECT COALESCE(MAX(m.ply), g.snapshotPly) FROM game g
+                    LEFT JOIN game_moves m ON m.gameID = g.gameID WHERE g.gameID=? GROUP BY g.snapshotPly
+                    """;
+            Integer lastPly = queryOne(conn, statement, INT, gameID);
+            if (lastPly == null) {
+                throw new DataAccessException("Game not found");
+            }
+            int ply = lastPly + 1;
+
+            // The primary key on (gameID, ply) rejects a second writer racing for the same ply
+            executeUpdate(conn, "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?)", gameID, ply, move);
+
+            if (ply % SNAPSHOT_INTERVAL == 0) {
+                var game = loadGame(conn, gameID);
+                executeUpdate(conn, "UPDATE game SET game=?, snapshotPly=? WHERE gameID=?",
+                        ChessGameCodec.encode(game.game()), ply, gameID);
             }
         }
-        catch (Exception e) {
-            throw new DataAccessException("Unable to read data: " + e.getMessage());
+        catch (SQLException e) {
+            throw new DataAccessException("Unable to record move: " + e.getMessage());
         }
-        return result;
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(int afterGameID, int limit) throws DataAccessException {
+        return queryList(SELECT_GAME_SUMMARIES, GAME_SUMMARY, afterGameID, limit);
     }
 
     @Override
     public void clearGames() throws DataAccessException {
-        var statement = "TRUNCATE game";
-        executeUpdate(statement);
-        nextGameID = 1;
+        executeUpdate("TRUNCATE game_moves");
+        executeUpdate("TRUNCATE game");
     }
 
-    private void initializeNextGameID() throws DataAccessException {
-        try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT MAX(gameID) as maxID FROM game";
-            try (var ps = conn.prepareStatement(statement)) {
-                try (var rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        int maxID = rs.getInt("maxID");
-                        nextGameID = maxID + 1;
-                    }
+    /*
+     * Reads a game's latest snapshot and replays the moves logged after it.
+     */
+    private GameData loadGame(Connection conn, int gameID) throws SQLException {
+        GameData game;
+        int snapshotPly;
+        try (var ps = conn.prepareStatement(SELECT_GAME)) {
+            ps.setInt(1, gameID);
+            try (var rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
                 }
+                game = GAME.map(rs);
+                snapshotPly = rs.getInt(6);
             }
-        } catch (SQLException e) {
-            throw new DataAccessException("Unable to initialize game ID: " + e.getMessage());
         }
+
+        var movesStatement = "SELECT move FROM game_moves WHERE gameID=? AND ply>? ORDER BY ply";
+        try (var ps = conn.prepareStatement(movesStatement)) {
+            ps.setInt(1, gameID);
+            ps.setInt(2, snapshotPly);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    game.game().applyMove(rs.getInt(1));
+                }
+            }
+        }
+        return game;
     }
 
-    private GameData readGame(ResultSet rs) throws SQLException {
-        var gameID = rs.getInt("gameID");
-        var whiteUsername = rs.getString("whiteUsername");
-        var blackUsername = rs.getString("blackUsername");
-        var gameName = rs.getString("gameName");
-        var json = rs.getString("game");
-        var game = new Gson().fromJson(json, ChessGame.class);
+    private static GameData readGame(ResultSet rs) throws SQLException {
+        var gameID = rs.getInt(1);
+        var whiteUsername = rs.getString(2);
+        var blackUsername = rs.getString(3);
+        var gameName = rs.getString(4);
+        var game = decodeGame(rs.getBytes(5));
         return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
     }
 
-    // UTILITY
+    private static GameSummary readGameSummary(ResultSet rs) throws SQLException {
+        return new GameSummary(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4));
+    }
 
-    @Override
-    public int getNextGameID() {
-        return nextGameID++;
+    private static ChessGame decodeGame(byte[] bytes) {
+        if (ChessGameCodec.isEncoded(bytes)) {
+            return ChessGameCodec.decode(bytes);
+        }
+        return readLegacyGame(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /*
+     * Games used to be stored as Gson JSON with an 8x8 array of pieces. They
+     * are read here so rows can be converted to the binary format.
+     */
+    private static ChessGame readLegacyGame(String json) {
+        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        var rows = root.getAsJsonObject("board").getAsJsonArray("squares");
+        if (rows == null) {
+            throw new IllegalArgumentException("stored game has no squares");
+        }
+
+        var board = new ChessBoard();
+        for (int row = 0; row < 8; row++) {
+            var columns = rows.get(row).getAsJsonArray();
+            for (int col = 0; col < 8; col++) {
+                JsonElement piece = columns.get(col);
+                if (piece.isJsonNull()) {
+                    continue;
+                }
+                var color = ChessGame.TeamColor.valueOf(piece.getAsJsonObject().get("pieceColor").getAsString());
+                var type = ChessPiece.PieceType.valueOf(piece.getAsJsonObject().get("type").getAsString());
+                board.addPiece(ChessPosition.of(row + 1, col + 1), ChessPiece.of(color, type));
+            }
+        }
+
+        var game = new ChessGame();
+        game.setBoard(board);
+        if (root.has("teamTurn")) {
+            game.setTeamTurn(ChessGame.TeamColor.valueOf(root.get("teamTurn").getAsString()));
+        }
+        return game;
     }
 
+    // UTILITY
+
     private final String[] createStatements = {
             """
         CREATE TABLE IF NOT EXISTS user (
@@ -225,9 +316,18 @@ public class MySQLDataAccess implements DataAccess {
             whiteUsername VARCHAR(255),
             blackUsername VARCHAR(255),
             gameName VARCHAR(255) NOT NULL,
-            game TEXT NOT NULL,
+            game BLOB NOT NULL,
+            snapshotPly INT NOT NULL DEFAULT 0,
             PRIMARY KEY (gameID)
         )
+        """,
+            """
+        CREATE TABLE IF NOT EXISTS game_moves (
+            gameID INT NOT NULL,
+            ply INT NOT NULL,
+            move INT NOT NULL,
+            PRIMARY KEY (gameID, ply)
+        )
         """
     };
 
@@ -244,34 +344,165 @@ public class MySQLDataAccess implements DataAccess {
         catch (SQLException ex) {
             throw new DataAccessException("Unable to configure database: " + ex.getMessage());
         }
+
+        migrateJsonGames();
+        addSnapshotPlyColumn();
     }
 
-    private int executeUpdate(String statement, Object... params) throws DataAccessException {
+    /*
+     * Game tables created before the move log have no snapshotPly column.
+     * Their stored game is the whole game, which is a snapshot at ply 0.
+     */
+    private void addSnapshotPlyColumn() throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
-                for (var i = 0; i < params.length; i++) {
-                    var param = params[i];
-                    if (param instanceof String p) {
-                        ps.setString(i + 1, p);
-                    }
-                    else if (param instanceof Integer p) {
-                        ps.setInt(i + 1, p);
+            var columnQuery = """
+                    SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'snapshotPly'
+                    """;
+            try (var ps = conn.prepareStatement(columnQuery); var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    var alter = "ALTER TABLE game ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0";
+                    try (var alterStatement = conn.prepareStatement(alter)) {
+                        alterStatement.executeUpdate();
                     }
-                    else if (param == null) {
-                        ps.setNull(i + 1, NULL);
+                }
+            }
+        }
+        catch (SQLException ex) {
+            throw new DataAccessException("Unable to configure database: " + ex.getMessage());
+        }
+    }
+
+    /*
+     * Databases created before the binary game format have a TEXT game column
+     * holding JSON. Widen the column to a BLOB and rewrite each JSON row in the
+     * binary format. Rows already converted are left alone, so this is safe to
+     * run on every startup.
+     */
+    private void migrateJsonGames() throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var columnQuery = """
+                    SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS
+                    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'game' AND COLUMN_NAME = 'game'
+                    """;
+            try (var ps = conn.prepareStatement(columnQuery); var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getString(1).toLowerCase().endsWith("text")) {
+                    try (var alter = conn.prepareStatement("ALTER TABLE game MODIFY game BLOB NOT NULL")) {
+                        alter.executeUpdate();
                     }
                 }
-                ps.executeUpdate();
+            }
 
-                var rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
+            var rowQuery = "SELECT gameID, game FROM game WHERE LEFT(game, 1) = '{'";
+            try (var ps = conn.prepareStatement(rowQuery); var rs = ps.executeQuery();
+                 var update = conn.prepareStatement("UPDATE game SET game=? WHERE gameID=?")) {
+                while (rs.next()) {
+                    var game = readLegacyGame(new String(rs.getBytes("game"), StandardCharsets.UTF_8));
+                    update.setBytes(1, ChessGameCodec.encode(game));
+                    update.setInt(2, rs.getInt("gameID"));
+                    update.executeUpdate();
                 }
-                return 0;
+            }
+        }
+        catch (SQLException | RuntimeException ex) {
+            throw new DataAccessException("Unable to migrate stored games: " + ex.getMessage());
+        }
+    }
+
+    private <T> T queryOne(String statement, RowMapper<T> mapper, Object... params) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            return queryOne(conn, statement, mapper, params);
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Unable to read data: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Maps the first row of a query, or returns null if it has no rows.
+     */
+    private static <T> T queryOne(Connection conn, String statement, RowMapper<T> mapper, Object... params)
+            throws SQLException {
+        try (var ps = conn.prepareStatement(statement)) {
+            bind(ps, params);
+            try (var rs = ps.executeQuery()) {
+                return rs.next() ? mapper.map(rs) : null;
+            }
+        }
+    }
+
+    private <T> List<T> queryList(String statement, RowMapper<T> mapper, Object... params)
+            throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection(); var ps = conn.prepareStatement(statement)) {
+            bind(ps, params);
+            try (var rs = ps.executeQuery()) {
+                var result = new ArrayList<T>();
+                while (rs.next()) {
+                    result.add(mapper.map(rs));
+                }
+                return result;
+            }
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("Unable to read data: " + e.getMessage());
+        }
+    }
+
+    private int executeUpdate(String statement, Object... params) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            return executeUpdate(conn, statement, params);
+        }
+        catch (SQLException e) {
+            throw new DataAccessException("unable to update database: " + statement + ", " + e.getMessage());
+        }
+    }
+
+    /*
+     * Runs an INSERT into a table with an AUTO_INCREMENT key and returns the key
+     * MySQL assigned, which is unique across threads and servers.
+     */
+    private int executeInsert(String statement, Object... params) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
+            bind(ps, params);
+            ps.executeUpdate();
+            try (var rs = ps.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new DataAccessException("no key generated: " + statement);
+                }
+                return rs.getInt(1);
             }
         }
         catch (SQLException e) {
             throw new DataAccessException("unable to update database: " + statement + ", " + e.getMessage());
         }
     }
+
+    /*
+     * Runs an INSERT, UPDATE, DELETE or TRUNCATE and returns the number of rows changed.
+     */
+    private static int executeUpdate(Connection conn, String statement, Object... params) throws SQLException {
+        try (var ps = conn.prepareStatement(statement)) {
+            bind(ps, params);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for (var i = 0; i < params.length; i++) {
+            var param = params[i];
+            if (param instanceof String p) {
+                ps.setString(i + 1, p);
+            }
+            else if (param instanceof Integer p) {
+                ps.setInt(i + 1, p);
+            }
+            else if (param instanceof byte[] p) {
+                ps.setBytes(i + 1, p);
+            }
+            else if (param == null) {
+                ps.setNull(i + 1, NULL);
+            }
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package dataaccess;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes and checks BCrypt passwords on a small dedicated thread pool, so a
+ * burst of registrations and logins can only tie up those threads rather than
+ * every request thread. When all threads are busy and the queue is full, new
+ * work is refused straight away with a {@link BusyException} instead of
+ * waiting.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_COST = 10;
+    public static final int DEFAULT_QUEUE_SIZE = 64;
+
+    private static PasswordHasher defaultHasher;
+
+    private final int cost;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Thrown when the hasher already has as much work queued as it accepts
+     */
+    public static class BusyException extends DataAccessException {
+        public BusyException() {
+            super("server busy");
+        }
+    }
+
+    /**
+     * @param cost      BCrypt log rounds for new hashes, 4 to 31; each step doubles the work
+     * @param threads   number of hashing threads
+     * @param queueSize number of requests that may wait for a thread
+     */
+    public PasswordHasher(int cost, int threads, int queueSize) {
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31, was " + cost);
+        }
+        this.cost = cost;
+
+        var count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    var thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return a process-wide hasher with the default cost, one thread per core
+     */
+    public static synchronized PasswordHasher defaultHasher() {
+        if (defaultHasher == null) {
+            defaultHasher = new PasswordHasher(DEFAULT_COST, Runtime.getRuntime().availableProcessors(),
+                    DEFAULT_QUEUE_SIZE);
+        }
+        return defaultHasher;
+    }
+
+    /**
+     * Stops the hashing threads once queued work is done. Later hashes and
+     * checks are refused with a {@link BusyException}.
+     */
+    public void close() {
+        executor.shutdown();
+    }
+
+    public String hash(String password) throws DataAccessException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public boolean check(String password, String hash) throws DataAccessException {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    private <T> T run(Callable<T> task) throws DataAccessException {
+        try {
+            return executor.submit(task).get();
+        }
+        catch (RejectedExecutionException e) {
+            throw new BusyException();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted while hashing password", e);
+        }
+        catch (ExecutionException e) {
+            throw new DataAccessException("unable to hash password: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+}
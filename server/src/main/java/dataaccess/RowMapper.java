@@ -0,0 +1,13 @@
+package dataaccess;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Turns the current row of a result set into an object. Mappers are stateless,
+ * so each one is created once and shared by every query that uses it.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -3,19 +3,22 @@ package server;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import io.javalin.http.Context;
+import service.GameActors;
 import service.ServiceException;
 
 public class ClearHandler {
     private DataAccess dataAccess;
+    private GameActors gameActors;
 
-    public ClearHandler(DataAccess dataAccess) {
+    public ClearHandler(DataAccess dataAccess, GameActors gameActors) {
         this.dataAccess = dataAccess;
+        this.gameActors = gameActors;
     }
 
     public void clear(Context ctx) throws Exception {
         try {
             dataAccess.clearUsers();
-            dataAccess.clearGames();
+            gameActors.clear();
             dataAccess.clearAuths();
             ctx.status(200);
         }
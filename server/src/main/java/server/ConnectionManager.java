@@ -0,0 +1,101 @@
+package server;
+
+import com.google.gson.Gson;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import serialization.Serializer;
+import websocket.messages.ServerMessage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the WebSocket sessions connected to each game, players and observers
+ * alike, and sends them messages.
+ * <p>
+ * A message for a game is serialized once and the same text is handed to every
+ * session in the group. Sends are asynchronous, so a broadcast never waits on a
+ * slow client; a client that lets {@link #MAX_QUEUED_MESSAGES} messages pile
+ * up, or whose connection fails, is closed and dropped from its game.
+ */
+public class ConnectionManager {
+    static final int MAX_QUEUED_MESSAGES = 64;
+
+    private final Gson gson = Serializer.gson();
+    private final Map<Integer, Set<Session>> games = new ConcurrentHashMap<>();
+    private final Map<Session, Integer> gameOf = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a session to a game's group, taking it out of any game it was in
+     */
+    public void add(int gameID, Session session) {
+        session.getRemote().setMaxOutgoingFrames(MAX_QUEUED_MESSAGES);
+        Integer previous = gameOf.put(session, gameID);
+        if (previous != null && previous != gameID) {
+            leaveGroup(previous, session);
+        }
+        // Added inside compute so it cannot race with an empty group being removed
+        games.compute(gameID, (id, group) -> {
+            Set<Session> sessions = (group == null) ? ConcurrentHashMap.newKeySet() : group;
+            sessions.add(session);
+            return sessions;
+        });
+    }
+
+    /**
+     * Takes a session out of whatever game it is in
+     */
+    public void remove(Session session) {
+        Integer gameID = gameOf.remove(session);
+        if (gameID != null) {
+            leaveGroup(gameID, session);
+        }
+    }
+
+    /**
+     * Sends a message to one session
+     */
+    public void send(Session session, ServerMessage message) {
+        send(session, gson.toJson(message));
+    }
+
+    /**
+     * Sends a message to every session in a game
+     *
+     * @param exclude a session to leave out, usually the one that caused the message, or null
+     */
+    public void broadcast(int gameID, ServerMessage message, Session exclude) {
+        Set<Session> group = games.get(gameID);
+        if (group == null) {
+            return;
+        }
+        String json = gson.toJson(message);
+        for (Session session : group) {
+            if (session != exclude) {
+                send(session, json);
+            }
+        }
+    }
+
+    private void send(Session session, String json) {
+        if (!session.isOpen()) {
+            remove(session);
+            return;
+        }
+        session.getRemote().sendString(json, new WriteCallback() {
+            @Override
+            public void writeFailed(Throwable failure) {
+                remove(session);
+                session.close();
+            }
+        });
+    }
+
+    private void leaveGroup(int gameID, Session session) {
+        games.computeIfPresent(gameID, (id, group) -> {
+            group.remove(session);
+            return group.isEmpty() ? null : group;
+        });
+    }
+}
@@ -1,24 +1,38 @@
 package server;
 
 import dataaccess.DataAccess;
+import service.GameActors;
 import service.GameService;
 import service.ServiceException;
 import service.UserService;
 
 import com.google.gson.Gson;
 import io.javalin.http.Context;
+import serialization.Serializer;
 
 public class GameHandler {
     private GameService gameService;
-    private Gson gson = new Gson();
+    private final Gson gson = Serializer.gson();
 
-    public GameHandler(DataAccess dataAccess) {
-        this.gameService = new GameService(dataAccess);
+    public GameHandler(DataAccess dataAccess, GameActors gameActors) {
+        this.gameService = new GameService(dataAccess, gameActors);
     }
 
     public void listGames(Context ctx) throws Exception {
         String authToken = ctx.header("authorization");
-        GameService.ListGamesResult result = gameService.listGames(authToken);
+        Integer pageSize;
+        int cursor;
+        try {
+            String pageSizeParam = ctx.queryParam("pageSize");
+            String cursorParam = ctx.queryParam("cursor");
+            pageSize = (pageSizeParam == null) ? null : Integer.valueOf(pageSizeParam);
+            cursor = (cursorParam == null) ? 0 : Integer.parseInt(cursorParam);
+        }
+        catch (NumberFormatException e) {
+            throw new ServiceException("Error: bad request", 400);
+        }
+
+        GameService.ListGamesResult result = gameService.listGames(authToken, pageSize, cursor);
         ctx.json(gson.toJson(result));
     }
 
@@ -0,0 +1,65 @@
+package server;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier thread, usually by
+ * blocking inside a synchronized block or native call. A pinned virtual thread
+ * holds a carrier the whole time it blocks, so a few of them on a slow JDBC
+ * call can stall every other request.
+ * <p>
+ * Listens for the JDK's jdk.VirtualThreadPinned flight recorder events
+ * in-process, so it needs no command line flags.
+ */
+class PinningMonitor implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(PinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    // Frames of the pinned thread's stack included in the log
+    private static final int MAX_FRAMES = 16;
+
+    private final RecordingStream stream;
+
+    /**
+     * @param threshold shortest pin worth reporting
+     */
+    PinningMonitor(Duration threshold) {
+        this(threshold, PinningMonitor::log);
+    }
+
+    PinningMonitor(Duration threshold, Consumer<RecordedEvent> listener) {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, listener);
+        stream.startAsync();
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private static void log(RecordedEvent event) {
+        var message = new StringBuilder("Virtual thread pinned for ")
+                .append(event.getDuration().toMillis()).append("ms");
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(frames.size(), MAX_FRAMES); i++) {
+                RecordedFrame frame = frames.get(i);
+                message.append("\n\tat ").append(frame.getMethod().getType().getName())
+                        .append('.').append(frame.getMethod().getName())
+                        .append(':').append(frame.getLineNumber());
+            }
+        }
+        LOG.warn(message.toString());
+    }
+}
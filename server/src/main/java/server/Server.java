@@ -1,33 +1,93 @@
 package server;
 
 import io.javalin.*;
+import dataaccess.CachingDataAccess;
 import dataaccess.DataAccess;
+import dataaccess.DatabaseManager;
 import dataaccess.MemoryDataAccess;
+import dataaccess.PasswordHasher;
 import io.javalin.http.Context;
+import service.GameActors;
 import service.ServiceException;
 import dataaccess.DataAccessException;
 
 import dataaccess.MySQLDataAccess;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
 public class Server {
+    private static final Logger LOG = LoggerFactory.getLogger(Server.class);
 
     private final Javalin javalin;
     private DataAccess dataAccess;
     private UserHandler userHandler;
     private GameHandler gameHandler;
     private ClearHandler clearHandler;
+    private WebSocketHandler webSocketHandler;
+    private PasswordHasher hasher;
+    private GameActors gameActors;
+    private PinningMonitor pinningMonitor;
+    private ScheduledExecutorService statsLogger;
+
+    private static final int AUTH_CACHE_SIZE = 10_000;
+    private static final long AUTH_CACHE_TTL_MILLIS = 5 * 60 * 1000;
+    private static final long AUTH_CACHE_NEGATIVE_TTL_MILLIS = 5 * 1000;
+
+    // Log the auth cache's counters this often; 0 turns the log off
+    private static final int CACHE_STATS_SECONDS = Integer.getInteger("server.cacheStatsSeconds", 60);
+
+    // Override the BCrypt cost with -Dbcrypt.cost=N
+    private static final int BCRYPT_COST = Integer.getInteger("bcrypt.cost", PasswordHasher.DEFAULT_COST);
+
+    // Run HTTP and WebSocket handlers on virtual threads; turn off with -Dserver.virtualThreads=false
+    private static final boolean VIRTUAL_THREADS =
+            Boolean.parseBoolean(System.getProperty("server.virtualThreads", "true"));
+
+    // Log virtual threads pinned longer than this; 0 turns the check off
+    private static final int PINNING_THRESHOLD_MILLIS = Integer.getInteger("server.pinningThresholdMillis", 20);
 
     public Server() {
+        hasher = new PasswordHasher(BCRYPT_COST, Runtime.getRuntime().availableProcessors(),
+                PasswordHasher.DEFAULT_QUEUE_SIZE);
+        CachingDataAccess cache;
         try {
-            dataAccess = new MySQLDataAccess();
+            cache = new CachingDataAccess(new MySQLDataAccess(hasher), AUTH_CACHE_SIZE,
+                    AUTH_CACHE_TTL_MILLIS, AUTH_CACHE_NEGATIVE_TTL_MILLIS);
         } catch (DataAccessException e) {
             throw new RuntimeException("Unable to initialize database", e);
         }
-        userHandler = new UserHandler(dataAccess);
-        gameHandler = new GameHandler(dataAccess);
-        clearHandler = new ClearHandler(dataAccess);
+        dataAccess = cache;
+        userHandler = new UserHandler(dataAccess, hasher);
+        // Every change to a game, over HTTP or WebSocket, goes through its mailbox here
+        gameActors = new GameActors(dataAccess);
+        gameHandler = new GameHandler(dataAccess, gameActors);
+        clearHandler = new ClearHandler(dataAccess, gameActors);
+        webSocketHandler = new WebSocketHandler(dataAccess, gameActors);
 
-        javalin = Javalin.create(config -> config.staticFiles.add("web"))
+        if (VIRTUAL_THREADS && PINNING_THRESHOLD_MILLIS > 0) {
+            pinningMonitor = new PinningMonitor(Duration.ofMillis(PINNING_THRESHOLD_MILLIS));
+        }
+
+        if (CACHE_STATS_SECONDS > 0) {
+            statsLogger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "auth-cache-stats");
+                thread.setDaemon(true);
+                return thread;
+            });
+            statsLogger.scheduleAtFixedRate(() -> logCacheStats(cache.stats()),
+                    CACHE_STATS_SECONDS, CACHE_STATS_SECONDS, TimeUnit.SECONDS);
+        }
+
+        javalin = Javalin.create(config -> {
+                    config.staticFiles.add("web");
+                    config.useVirtualThreads = VIRTUAL_THREADS;
+                })
                 // Register your endpoints and exception handlers here.
                 .post("/user", userHandler::register)
                 .post("/session", userHandler::login)
@@ -36,6 +96,7 @@ public class Server {
                 .post("/game", gameHandler::createGame)
                 .put("/game", gameHandler::joinGame)
                 .delete("/db", clearHandler::clear)
+                .ws("/ws", webSocketHandler::configure)
                 .exception(ServiceException.class, this::handleServiceException)
                 .exception(DataAccessException.class, this::handleDataAccessException);
 
@@ -51,12 +112,31 @@ public class Server {
         ctx.json("{\"message\":\"Error: " + ex.getMessage() + "\"}");
     }
 
+    private static void logCacheStats(CachingDataAccess.Stats stats) {
+        LOG.info("Auth cache: {} entries, {} hits ({} negative), {} misses, {}% hit rate, {} evictions, {} expirations",
+                stats.size(), stats.hits(), stats.negativeHits(), stats.misses(),
+                Math.round(stats.hitRate() * 100), stats.evictions(), stats.expirations());
+    }
+
     public int run(int desiredPort) {
         javalin.start(desiredPort);
         return javalin.port();
     }
 
+    /**
+     * Stops serving, lets games finish saving their moves, then releases the
+     * hashing threads and database connections
+     */
     public void stop() {
         javalin.stop();
+        gameActors.close();
+        hasher.close();
+        DatabaseManager.closePool();
+        if (pinningMonitor != null) {
+            pinningMonitor.close();
+        }
+        if (statsLogger != null) {
+            statsLogger.shutdownNow();
+        }
     }
 }
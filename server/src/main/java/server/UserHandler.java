@@ -1,18 +1,20 @@
 package server;
 
 import dataaccess.DataAccess;
+import dataaccess.PasswordHasher;
 import service.ServiceException;
 import service.UserService;
 
 import com.google.gson.Gson;
 import io.javalin.http.Context;
+import serialization.Serializer;
 
 public class UserHandler {
     private UserService userService;
-    private Gson gson = new Gson();
+    private final Gson gson = Serializer.gson();
 
-    public  UserHandler(DataAccess dataAccess) {
-        this.userService = new UserService(dataAccess);
+    public  UserHandler(DataAccess dataAccess, PasswordHasher hasher) {
+        this.userService = new UserService(dataAccess, hasher);
     }
 
     public void register(Context ctx) throws Exception {
@@ -0,0 +1,152 @@
+package server;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccess;
+import model.GameData;
+import service.GameActors;
+import service.GameService;
+import service.ServiceException;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import io.javalin.websocket.WsCloseContext;
+import io.javalin.websocket.WsConfig;
+import io.javalin.websocket.WsMessageContext;
+import org.eclipse.jetty.websocket.api.Session;
+import serialization.Serializer;
+
+/**
+ * Handles gameplay commands sent over the /ws WebSocket. Each command gets a
+ * reply or an ERROR for the sender, and the other sessions in the game are
+ * told what happened through the {@link ConnectionManager}.
+ * <p>
+ * Messages about a change are queued from inside the game's mailbox, once the
+ * change is saved, so clients see a game's changes in the order they were made.
+ */
+public class WebSocketHandler {
+    private final GameService gameService;
+    private final ConnectionManager connections = new ConnectionManager();
+    private final Gson gson = Serializer.gson();
+
+    public WebSocketHandler(DataAccess dataAccess, GameActors gameActors) {
+        this.gameService = new GameService(dataAccess, gameActors);
+    }
+
+    public void configure(WsConfig ws) {
+        ws.onMessage(this::onMessage);
+        ws.onClose(this::onClose);
+    }
+
+    private void onMessage(WsMessageContext ctx) {
+        Session session = ctx.session;
+        try {
+            JsonElement json = JsonParser.parseString(ctx.message());
+            UserGameCommand command = gson.fromJson(json, UserGameCommand.class);
+            if (command == null || command.getCommandType() == null || command.getGameID() == null) {
+                throw new ServiceException("Error: bad request", 400);
+            }
+
+            switch (command.getCommandType()) {
+                case CONNECT -> connect(session, command);
+                case MAKE_MOVE -> makeMove(session, gson.fromJson(json, MakeMoveCommand.class));
+                case LEAVE -> leave(session, command);
+                case RESIGN -> resign(session, command);
+            }
+        }
+        catch (ServiceException e) {
+            connections.send(session, new ErrorMessage(e.getMessage()));
+        }
+        catch (JsonParseException | IllegalStateException e) {
+            connections.send(session, new ErrorMessage("Error: bad request"));
+        }
+    }
+
+    private void onClose(WsCloseContext ctx) {
+        connections.remove(ctx.session);
+    }
+
+    private void connect(Session session, UserGameCommand command) throws ServiceException {
+        int gameID = command.getGameID();
+        gameService.connect(command.getAuthToken(), gameID, update -> {
+            connections.add(gameID, session);
+            connections.send(session, new LoadGameMessage(update.game.game()));
+            connections.broadcast(gameID,
+                    new NotificationMessage(update.username + " joined the game as " + role(update)), session);
+        });
+    }
+
+    private void makeMove(Session session, MakeMoveCommand command) throws ServiceException {
+        int gameID = command.getGameID();
+        ChessMove move = command.getMove();
+        gameService.makeMove(command.getAuthToken(), gameID, move, update -> {
+            connections.broadcast(gameID, new LoadGameMessage(update.game.game()), null);
+            connections.broadcast(gameID, new NotificationMessage(update.username + " moved "
+                    + square(move.getStartPosition()) + " to " + square(move.getEndPosition())), session);
+
+            String status = status(update.game);
+            if (status != null) {
+                connections.broadcast(gameID, new NotificationMessage(status), null);
+            }
+        });
+    }
+
+    private void leave(Session session, UserGameCommand command) throws ServiceException {
+        int gameID = command.getGameID();
+        gameService.leaveGame(command.getAuthToken(), gameID, update -> {
+            connections.remove(session);
+            connections.broadcast(gameID, new NotificationMessage(update.username + " left the game"), null);
+        });
+    }
+
+    private void resign(Session session, UserGameCommand command) throws ServiceException {
+        int gameID = command.getGameID();
+        gameService.resign(command.getAuthToken(), gameID, update ->
+                connections.broadcast(gameID, new NotificationMessage(update.username + " resigned"), null));
+    }
+
+    private static String role(GameService.GameUpdate update) {
+        if (update.username.equals(update.game.whiteUsername())) {
+            return "white";
+        }
+        if (update.username.equals(update.game.blackUsername())) {
+            return "black";
+        }
+        return "an observer";
+    }
+
+    /**
+     * @return a notice for the players if the side to move is in check, checkmate or stalemate
+     */
+    private static String status(GameData game) {
+        ChessGame chessGame = game.game();
+        ChessGame.TeamColor turn = chessGame.getTeamTurn();
+        String player = (turn == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+        if (player == null) {
+            player = turn.name().toLowerCase();
+        }
+
+        if (chessGame.isInCheckmate(turn)) {
+            return player + " is in checkmate";
+        }
+        if (chessGame.isInStalemate(turn)) {
+            return player + " is in stalemate";
+        }
+        if (chessGame.isInCheck(turn)) {
+            return player + " is in check";
+        }
+        return null;
+    }
+
+    private static String square(ChessPosition position) {
+        return "" + (char) ('a' + position.getColumn() - 1) + position.getRow();
+    }
+}
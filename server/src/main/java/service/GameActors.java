@@ -0,0 +1,350 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.GameData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Gives every game in play a single writer. Each game has a mailbox of
+ * commands that run one at a time, in the order they were sent, against a
+ * live copy of the game owned by that mailbox; no two commands for one game
+ * ever run at once, so they need no locks. Different games drain on the
+ * executor independently.
+ * <p>
+ * A command's writes to the store are made before the caller has its answer,
+ * so a change is only reported, or announced to other clients, once it is
+ * saved. If a write fails the caller gets the error and the live copy is
+ * thrown away and reloaded from the store.
+ * <p>
+ * A game's mailbox is dropped once it has been idle for a while, and made
+ * again, reloading the game, on its next command. Clearing the games closes
+ * every mailbox, and a closed mailbox rejects the commands left in it rather
+ * than write to a game that is gone.
+ */
+public class GameActors {
+    private static final Logger LOG = LoggerFactory.getLogger(GameActors.class);
+
+    // Commands one mailbox runs before giving its thread to other games
+    private static final int BATCH_SIZE = 64;
+
+    static final long DEFAULT_IDLE_MILLIS = 5 * 60 * 1000;
+    // How often calls look for idle mailboxes to drop, at most
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final DataAccess dataAccess;
+    private final Executor executor;
+    // Set when this created the executor, so close knows to shut it down
+    private final ExecutorService ownedExecutor;
+    private final Map<Integer, Actor> actors = new ConcurrentHashMap<>();
+    private final long idleNanos;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+    // Commands hold the read lock while they load, run and save; clear holds
+    // the write lock, so no command is part way through when the games go
+    private final ReadWriteLock clearLock = new ReentrantReadWriteLock();
+
+    /**
+     * Drains each game's mailbox on its own virtual thread
+     */
+    public GameActors(DataAccess dataAccess) {
+        this(dataAccess, Executors.newVirtualThreadPerTaskExecutor(), true, DEFAULT_IDLE_MILLIS);
+    }
+
+    /**
+     * @param executor runs mailbox drains; {@code Runnable::run} drains on the
+     *                 calling thread, with no threads of its own
+     */
+    public GameActors(DataAccess dataAccess, Executor executor) {
+        this(dataAccess, executor, false, DEFAULT_IDLE_MILLIS);
+    }
+
+    /**
+     * @param idleMillis how long a game's mailbox may sit empty before it is dropped
+     */
+    GameActors(DataAccess dataAccess, Executor executor, long idleMillis) {
+        this(dataAccess, executor, false, idleMillis);
+    }
+
+    private GameActors(DataAccess dataAccess, Executor executor, boolean owned, long idleMillis) {
+        this.dataAccess = dataAccess;
+        this.executor = executor;
+        this.ownedExecutor = owned ? (ExecutorService) executor : null;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.sweepIntervalNanos = Math.min(idleNanos, SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * A change to, or read of, one game
+     */
+    interface Command<T> {
+        T run(LiveGame game) throws ServiceException, DataAccessException;
+    }
+
+    /**
+     * Runs a command on its game's mailbox and waits for the result
+     *
+     * @throws ServiceException 400 if there is no such game, or whatever the command throws
+     */
+    <T> T call(int gameID, Command<T> command) throws ServiceException, DataAccessException {
+        return call(gameID, command, null);
+    }
+
+    /**
+     * Runs a command on its game's mailbox and waits for the result
+     *
+     * @param saved run in the mailbox with the result once the command's
+     *              writes are saved, before the game's next command; may be null
+     * @throws ServiceException 400 if there is no such game, or whatever the command throws
+     */
+    <T> T call(int gameID, Command<T> command, Consumer<? super T> saved)
+            throws ServiceException, DataAccessException {
+        evictIdle();
+
+        var result = new CompletableFuture<T>();
+        // Queued inside compute so it cannot race with the mailbox being dropped
+        Actor actor = actors.compute(gameID, (id, existing) -> {
+            Actor target = (existing == null) ? new Actor(id) : existing;
+            target.mailbox.add(() -> run(target, command, saved, result));
+            return target;
+        });
+        actor.schedule();
+
+        try {
+            return result.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Error: interrupted", 500);
+        }
+        catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case ServiceException serviceException -> throw serviceException;
+                case DataAccessException dataAccessException -> throw dataAccessException;
+                default -> throw new ServiceException("Error: " + e.getCause().getMessage(), 500);
+            }
+        }
+    }
+
+    /*
+     * Drops mailboxes that are empty, not running, and either idle too long or
+     * holding no game, such as one made for an ID that does not exist.
+     * Checked at most once per sweep interval, by whichever call gets there.
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        for (Integer gameID : actors.keySet()) {
+            actors.computeIfPresent(gameID, (id, actor) -> actor.isIdle(now) ? null : actor);
+        }
+    }
+
+    /**
+     * @return how many games have a mailbox
+     */
+    int size() {
+        return actors.size();
+    }
+
+    /**
+     * Clears the games from the store and forgets every live game. Waits for
+     * commands already running to save their writes first; commands still
+     * queued are rejected, as their game no longer exists.
+     */
+    public void clear() throws DataAccessException {
+        clearLock.writeLock().lock();
+        try {
+            for (Integer gameID : actors.keySet()) {
+                actors.computeIfPresent(gameID, (id, actor) -> {
+                    actor.closed = true;
+                    return null;
+                });
+            }
+            dataAccess.clearGames();
+        }
+        finally {
+            clearLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for the mailboxes already running to finish and save their
+     * writes, then stops the executor this created. Call once no more
+     * commands can arrive.
+     */
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    /**
+     * The live copy of a game, only ever touched by its own mailbox. Changes
+     * made through it are written to the store once the command finishes.
+     */
+    static final class LiveGame {
+        private final int gameID;
+        private GameData data;
+        private final List<Write> writes = new ArrayList<>();
+
+        private LiveGame(int gameID, GameData data) {
+            this.gameID = gameID;
+            this.data = data;
+        }
+
+        GameData data() {
+            return data;
+        }
+
+        /**
+         * @return a copy of the game that is safe to hand to other threads
+         */
+        GameData snapshot() {
+            return copy(data);
+        }
+
+        void makeMove(int move) {
+            data.game().applyMove(move);
+            writes.add(dataAccess -> dataAccess.appendMove(gameID, move));
+        }
+
+        void update(GameData updated) {
+            data = updated;
+            // Copied now: later moves in the batch are logged by their own writes
+            GameData stored = copy(updated);
+            writes.add(dataAccess -> dataAccess.updateGame(stored));
+        }
+    }
+
+    private interface Write {
+        void apply(DataAccess dataAccess) throws DataAccessException;
+    }
+
+    private final class Actor {
+        private final int gameID;
+        private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Loaded by the first command; null again after a failed command so the next one reloads
+        private volatile LiveGame game;
+        private volatile long lastUsed = System.nanoTime();
+        // Set once the games are cleared; the mailbox's game is gone
+        private volatile boolean closed;
+
+        Actor(int gameID) {
+            this.gameID = gameID;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private boolean isIdle(long now) {
+            return mailbox.isEmpty() && !scheduled.get() && (game == null || now - lastUsed >= idleNanos);
+        }
+
+        private void drain() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = mailbox.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+            lastUsed = System.nanoTime();
+            scheduled.set(false);
+            // A command may have arrived after the last poll, or the batch ran out
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /*
+     * Runs one command on the mailbox's thread: loads the game if needed, runs
+     * the command, saves its writes, then reports the result.
+     */
+    private <T> void run(Actor actor, Command<T> command, Consumer<? super T> saved, CompletableFuture<T> result) {
+        int gameID = actor.gameID;
+        T value;
+        clearLock.readLock().lock();
+        try {
+            if (actor.closed) {
+                throw new ServiceException("Error: bad request", 400);
+            }
+            if (actor.game == null) {
+                GameData data = dataAccess.getGame(gameID);
+                if (data == null) {
+                    throw new ServiceException("Error: bad request", 400);
+                }
+                actor.game = new LiveGame(gameID, copy(data));
+            }
+            value = command.run(actor.game);
+            flush(actor.game);
+        }
+        catch (Exception e) {
+            // A command that failed part way may have left the live copy changed
+            if (actor.game != null && !actor.game.writes.isEmpty()) {
+                actor.game = null;
+            }
+            result.completeExceptionally(e);
+            return;
+        }
+        finally {
+            clearLock.readLock().unlock();
+        }
+
+        if (saved != null) {
+            try {
+                saved.accept(value);
+            }
+            catch (RuntimeException e) {
+                LOG.error("Unable to announce a change to game {}: {}", gameID, e.getMessage());
+            }
+        }
+        result.complete(value);
+    }
+
+    private void flush(LiveGame game) throws DataAccessException {
+        try {
+            for (Write write : game.writes) {
+                write.apply(dataAccess);
+            }
+        }
+        catch (DataAccessException e) {
+            LOG.error("Unable to save game {}, reloading it: {}", game.gameID, e.getMessage());
+            throw e;
+        }
+        game.writes.clear();
+    }
+
+    private static GameData copy(GameData data) {
+        ChessGame game = ChessGameCodec.decode(ChessGameCodec.encode(data.game()));
+        return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(), game);
+    }
+}
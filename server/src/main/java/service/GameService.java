@@ -1,21 +1,51 @@
 package service;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import model.AuthData;
 import model.GameData;
-import java.util.ArrayList;
+import model.GameSummary;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class GameService {
+    public static final int MAX_PAGE_SIZE = 100;
+
     private DataAccess dataAccess;
+    private GameActors actors;
 
+    /**
+     * Runs each game's commands on the calling thread, so a call's writes are
+     * in the store when it returns
+     */
     public GameService(DataAccess dataAccess) {
+        this(dataAccess, new GameActors(dataAccess, Runnable::run));
+    }
+
+    /**
+     * @param actors the mailboxes every change to a game goes through; share
+     *               one between all services using the same store
+     */
+    public GameService(DataAccess dataAccess, GameActors actors) {
         this.dataAccess = dataAccess;
+        this.actors = actors;
     }
 
     public ListGamesResult listGames(String authToken) throws ServiceException {
+        return listGames(authToken, null, 0);
+    }
+
+    /**
+     * Lists one page of games in ID order. Without a page size every game
+     * after the cursor is listed, as before pagination existed.
+     *
+     * @param pageSize most games to return, at most {@link #MAX_PAGE_SIZE}, or null for all
+     * @param cursor   the nextCursor of the previous page, or 0 for the first page
+     */
+    public ListGamesResult listGames(String authToken, Integer pageSize, int cursor) throws ServiceException {
         try {
             AuthData auth = dataAccess.getAuth(authToken);
 
@@ -23,8 +53,21 @@ public class GameService {
                 throw new ServiceException("Error: unauthorized", 401);
             }
 
-            Collection<GameData> games = dataAccess.listGames();
-            return new ListGamesResult(new ArrayList<>(games));
+            if ((pageSize != null && (pageSize < 1 || pageSize > MAX_PAGE_SIZE)) || cursor < 0) {
+                throw new ServiceException("Error: bad request", 400);
+            }
+
+            if (pageSize == null) {
+                return new ListGamesResult(dataAccess.listGameSummaries(cursor, Integer.MAX_VALUE), null);
+            }
+
+            // One extra row tells us whether there is another page
+            List<GameSummary> games = dataAccess.listGameSummaries(cursor, pageSize + 1);
+            if (games.size() <= pageSize) {
+                return new ListGamesResult(games, null);
+            }
+            List<GameSummary> page = games.subList(0, pageSize);
+            return new ListGamesResult(page, page.get(pageSize - 1).gameID());
         }
         catch  (ServiceException e) {
             throw e;
@@ -49,9 +92,8 @@ public class GameService {
                 throw new ServiceException("Error: unauthorized", 401);
             }
 
-            int gameID = dataAccess.getNextGameID();
-            GameData game = new GameData(gameID, null, null, gameName, new ChessGame());
-            dataAccess.createGame(game);
+            GameData game = new GameData(0, null, null, gameName, new ChessGame());
+            int gameID = dataAccess.createGame(game);
 
             return new CreateGameResult(gameID);
         }
@@ -69,41 +111,208 @@ public class GameService {
     public void joinGame(String authToken, String playerColor, int gameID) throws ServiceException {
         try {
             // Validate auth token
-            AuthData auth = dataAccess.getAuth(authToken);
-            if (auth == null) {
-                throw new ServiceException("Error: unauthorized", 401);
-            }
+            AuthData auth = authorize(authToken);
 
             // Validate gameID
             if (gameID <= 0) {
                 throw new ServiceException("Error: bad request", 400);
             }
 
-            GameData game = dataAccess.getGame(gameID);
-            if (game == null) {
-                throw new ServiceException("Error: bad request", 400);
-            }
+            actors.call(gameID, live -> {
+                GameData game = live.data();
+
+                // Validate playerColor (null, empty, and bad colors are ALL bad requests)
+                if (playerColor == null || playerColor.trim().isEmpty() ||
+                        (!playerColor.equals("WHITE") && !playerColor.equals("BLACK"))) {
+                    throw new ServiceException("Error: bad request", 400);
+                }
+
+                // Check if spot is already taken
+                String currentPlayer = playerColor.equals("WHITE") ? game.whiteUsername() : game.blackUsername();
+                if (currentPlayer != null) {
+                    throw new ServiceException("Error: already taken", 403);
+                }
+
+                // Update game with the new player
+                live.update(new GameData(
+                        game.gameID(),
+                        playerColor.equals("WHITE") ? auth.username() : game.whiteUsername(),
+                        playerColor.equals("BLACK") ? auth.username() : game.blackUsername(),
+                        game.gameName(),
+                        game.game()));
+                return null;
+            });
+        }
+        catch (ServiceException e) {
+            throw e;
+        }
+        catch (DataAccessException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+        catch (Exception e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+    }
+
+    /**
+     * Looks up a game for a user who wants to play or watch it
+     */
+    public GameUpdate connect(String authToken, int gameID) throws ServiceException {
+        return connect(authToken, gameID, null);
+    }
+
+    /**
+     * @param saved told about the update in the game's mailbox, so updates to
+     *              one game reach it in the order they happened; may be null
+     */
+    public GameUpdate connect(String authToken, int gameID, Consumer<GameUpdate> saved) throws ServiceException {
+        try {
+            AuthData auth = authorize(authToken);
+            return actors.call(gameID, live -> new GameUpdate(auth.username(), live.snapshot()), saved);
+        }
+        catch (ServiceException e) {
+            throw e;
+        }
+        catch (DataAccessException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+        catch (Exception e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+    }
 
-            // Validate playerColor (null, empty, and bad colors are ALL bad requests)
-            if (playerColor == null || playerColor.trim().isEmpty() ||
-                    (!playerColor.equals("WHITE") && !playerColor.equals("BLACK"))) {
+    /**
+     * Makes a move for the player whose turn it is. When the move ends the
+     * game by checkmate or stalemate the game is marked over.
+     *
+     * @return the game after the move
+     */
+    public GameUpdate makeMove(String authToken, int gameID, ChessMove move) throws ServiceException {
+        return makeMove(authToken, gameID, move, null);
+    }
+
+    /**
+     * @param saved told about the update once the move is saved, in the game's
+     *              mailbox, so moves reach it in the order they were played; may be null
+     */
+    public GameUpdate makeMove(String authToken, int gameID, ChessMove move, Consumer<GameUpdate> saved)
+            throws ServiceException {
+        try {
+            AuthData auth = authorize(authToken);
+            if (move == null || move.getStartPosition() == null || move.getEndPosition() == null) {
                 throw new ServiceException("Error: bad request", 400);
             }
 
-            // Check if spot is already taken
-            String currentPlayer = playerColor.equals("WHITE") ? game.whiteUsername() : game.blackUsername();
-            if (currentPlayer != null) {
-                throw new ServiceException("Error: already taken", 403);
-            }
+            return actors.call(gameID, live -> {
+                GameData game = live.data();
+                ChessGame chessGame = game.game();
+                if (chessGame.isGameOver()) {
+                    throw new ServiceException("Error: the game is over", 400);
+                }
+
+                // Only the player whose turn it is may move
+                ChessGame.TeamColor turn = chessGame.getTeamTurn();
+                String player = (turn == ChessGame.TeamColor.WHITE) ? game.whiteUsername() : game.blackUsername();
+                if (!auth.username().equals(player)) {
+                    throw new ServiceException("Error: not your turn", 403);
+                }
+
+                // Null when there is no piece or the square is off the board
+                Collection<ChessMove> validMoves = chessGame.validMoves(move.getStartPosition());
+                if (validMoves == null || !validMoves.contains(move)
+                        || chessGame.getBoard().getPiece(move.getStartPosition()).getTeamColor() != turn) {
+                    throw new ServiceException("Error: invalid move", 400);
+                }
+
+                live.makeMove(move.pack());
+                if (chessGame.validMoveCount(chessGame.getTeamTurn()) == 0) {
+                    chessGame.setGameOver(true);
+                    live.update(game);
+                }
+                return new GameUpdate(auth.username(), live.snapshot());
+            }, saved);
+        }
+        catch (ServiceException e) {
+            throw e;
+        }
+        catch (DataAccessException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+        catch (Exception e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+    }
+
+    /**
+     * Takes a user out of a game. A player's seat is freed for someone else to
+     * join; observers just stop watching.
+     */
+    public GameUpdate leaveGame(String authToken, int gameID) throws ServiceException {
+        return leaveGame(authToken, gameID, null);
+    }
+
+    /**
+     * @param saved told about the update in the game's mailbox once it is saved; may be null
+     */
+    public GameUpdate leaveGame(String authToken, int gameID, Consumer<GameUpdate> saved) throws ServiceException {
+        try {
+            AuthData auth = authorize(authToken);
+            String username = auth.username();
+
+            return actors.call(gameID, live -> {
+                GameData game = live.data();
+                boolean white = username.equals(game.whiteUsername());
+                boolean black = username.equals(game.blackUsername());
+                if (white || black) {
+                    live.update(new GameData(
+                            game.gameID(),
+                            white ? null : game.whiteUsername(),
+                            black ? null : game.blackUsername(),
+                            game.gameName(),
+                            game.game()));
+                }
+                return new GameUpdate(username, live.snapshot());
+            }, saved);
+        }
+        catch (ServiceException e) {
+            throw e;
+        }
+        catch (DataAccessException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+        catch (Exception e) {
+            throw new ServiceException("Error: " + e.getMessage(), 500);
+        }
+    }
 
-            // Update game with the new player
-            GameData updatedGame = new GameData(
-                    game.gameID(),
-                    playerColor.equals("WHITE") ? auth.username() : game.whiteUsername(),
-                    playerColor.equals("BLACK") ? auth.username() : game.blackUsername(),
-                    game.gameName(),
-                    game.game());
-            dataAccess.updateGame(updatedGame);
+    /**
+     * Ends the game on behalf of one of its players
+     */
+    public GameUpdate resign(String authToken, int gameID) throws ServiceException {
+        return resign(authToken, gameID, null);
+    }
+
+    /**
+     * @param saved told about the update in the game's mailbox once it is saved; may be null
+     */
+    public GameUpdate resign(String authToken, int gameID, Consumer<GameUpdate> saved) throws ServiceException {
+        try {
+            AuthData auth = authorize(authToken);
+            String username = auth.username();
+
+            return actors.call(gameID, live -> {
+                GameData game = live.data();
+                if (!username.equals(game.whiteUsername()) && !username.equals(game.blackUsername())) {
+                    throw new ServiceException("Error: observers cannot resign", 403);
+                }
+                if (game.game().isGameOver()) {
+                    throw new ServiceException("Error: the game is over", 400);
+                }
+
+                game.game().setGameOver(true);
+                live.update(game);
+                return new GameUpdate(username, live.snapshot());
+            }, saved);
         }
         catch (ServiceException e) {
             throw e;
@@ -116,11 +325,35 @@ public class GameService {
         }
     }
 
+    private AuthData authorize(String authToken) throws DataAccessException, ServiceException {
+        AuthData auth = dataAccess.getAuth(authToken);
+        if (auth == null) {
+            throw new ServiceException("Error: unauthorized", 401);
+        }
+        return auth;
+    }
+
     public static class ListGamesResult {
-        public java.util.List<GameData> games;
+        public List<GameSummary> games;
+        // Pass back as the cursor to get the next page; null on the last page
+        public Integer nextCursor;
 
-        public ListGamesResult(java.util.List<GameData> games) {
+        public ListGamesResult(List<GameSummary> games, Integer nextCursor) {
             this.games = games;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    /**
+     * The user a gameplay command was made by, and the game after it
+     */
+    public static class GameUpdate {
+        public String username;
+        public GameData game;
+
+        public GameUpdate(String username, GameData game) {
+            this.username = username;
+            this.game = game;
         }
     }
 
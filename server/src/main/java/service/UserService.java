@@ -2,17 +2,23 @@ package service;
 
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.PasswordHasher;
 import model.AuthData;
 import model.UserData;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.UUID;
 
 public class UserService {
     private DataAccess dataAccess;
+    private PasswordHasher hasher;
 
     public UserService(DataAccess dataAccess) {
+        this(dataAccess, PasswordHasher.defaultHasher());
+    }
+
+    public UserService(DataAccess dataAccess, PasswordHasher hasher) {
         this.dataAccess = dataAccess;
+        this.hasher = hasher;
     }
 
     public RegisterResult register(String username, String password, String email) throws ServiceException {
@@ -44,6 +50,9 @@ public class UserService {
         catch (ServiceException e) {
             throw e;
         }
+        catch (PasswordHasher.BusyException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 503);
+        }
         catch (DataAccessException e) {
             throw new ServiceException("Error: "+ e.getMessage(), 500);
         }
@@ -66,7 +75,7 @@ public class UserService {
                 throw new ServiceException("Error: unauthorized", 401);
             }
 
-            if (!BCrypt.checkpw(password, user.password())) {
+            if (!hasher.check(password, user.password())) {
                 throw new ServiceException("Error: unauthorized", 401);
             }
 
@@ -79,6 +88,9 @@ public class UserService {
         catch (ServiceException e) {
             throw e;
         }
+        catch (PasswordHasher.BusyException e) {
+            throw new ServiceException("Error: " + e.getMessage(), 503);
+        }
         catch (DataAccessException e) {
             throw new ServiceException("Error: "+ e.getMessage(), 500);
         }
@@ -0,0 +1,128 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingDataAccessTests {
+    private CountingDataAccess backing;
+    private CachingDataAccess cache;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        backing = new CountingDataAccess();
+        now = 0;
+        cache = new CachingDataAccess(backing, 2, 1000, 100, () -> now);
+    }
+
+    @Test
+    void cachesFoundTokens() throws DataAccessException {
+        cache.createAuth(new AuthData("token", "user"));
+
+        assertEquals("user", cache.getAuth("token").username());
+        assertEquals("user", cache.getAuth("token").username());
+        assertEquals(1, backing.lookups);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void cachesUnknownTokensBriefly() throws DataAccessException {
+        assertNull(cache.getAuth("bad"));
+        assertNull(cache.getAuth("bad"));
+        assertEquals(1, backing.lookups);
+        assertEquals(1, cache.stats().negativeHits());
+
+        advance(100);
+        assertNull(cache.getAuth("bad"));
+        assertEquals(2, backing.lookups);
+        assertEquals(1, cache.stats().expirations());
+    }
+
+    @Test
+    void expiresFoundTokens() throws DataAccessException {
+        cache.createAuth(new AuthData("token", "user"));
+        cache.getAuth("token");
+
+        advance(999);
+        cache.getAuth("token");
+        assertEquals(1, backing.lookups);
+
+        advance(1);
+        cache.getAuth("token");
+        assertEquals(2, backing.lookups);
+    }
+
+    @Test
+    void deleteInvalidates() throws DataAccessException {
+        cache.createAuth(new AuthData("token", "user"));
+        cache.getAuth("token");
+        cache.deleteAuth("token");
+
+        assertNull(cache.getAuth("token"));
+    }
+
+    @Test
+    void clearInvalidates() throws DataAccessException {
+        cache.createAuth(new AuthData("token", "user"));
+        cache.getAuth("token");
+        cache.clearAuths();
+
+        assertNull(cache.getAuth("token"));
+    }
+
+    @Test
+    void createReplacesNegativeEntry() throws DataAccessException {
+        assertNull(cache.getAuth("token"));
+        cache.createAuth(new AuthData("token", "user"));
+
+        assertNotNull(cache.getAuth("token"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws DataAccessException {
+        // Recency is the time of last use
+        cache.getAuth("a");
+        advance(1);
+        cache.getAuth("b");
+        advance(1);
+        cache.getAuth("a");
+        advance(1);
+        cache.getAuth("c");
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+        cache.getAuth("a");
+        assertEquals(3, backing.lookups, "a was used most recently and should still be cached");
+    }
+
+    @Test
+    void staysBoundedUnderBadTokens() throws DataAccessException {
+        var large = new CachingDataAccess(backing, 4096, 1000, 100, () -> now);
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(large.getAuth("bad" + i));
+        }
+
+        assertTrue(large.stats().size() <= 4096, "Every miss should evict once the cache is full");
+        assertEquals(10_000 - large.stats().size(), large.stats().evictions());
+    }
+
+    private void advance(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static class CountingDataAccess extends MemoryDataAccess {
+        int lookups;
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            lookups++;
+            return super.getAuth(authToken);
+        }
+    }
+}
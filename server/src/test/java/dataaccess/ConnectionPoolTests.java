@@ -0,0 +1,157 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+    private static final String URL = "jdbc:pooltest:";
+    private static final AtomicInteger opened = new AtomicInteger();
+    private static final AtomicInteger closed = new AtomicInteger();
+
+    private ConnectionPool pool;
+
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new StubDriver());
+    }
+
+    @BeforeEach
+    void setUp() {
+        opened.set(0);
+        closed.set(0);
+        pool = new ConnectionPool(URL, "user", "password", "chess",
+                new ConnectionPool.Settings(0, 2, 200, 600_000, 1000, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void reusesReturnedConnection() throws SQLException {
+        try (var conn = pool.borrow()) {
+            assertEquals("chess", conn.getCatalog());
+        }
+        try (var conn = pool.borrow()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, opened.get());
+        assertEquals(0, closed.get());
+    }
+
+    @Test
+    void closedHandleCannotBeUsed() throws SQLException {
+        var conn = pool.borrow();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getCatalog);
+    }
+
+    @Test
+    void timesOutWhenExhausted() throws SQLException {
+        try (var first = pool.borrow(); var second = pool.borrow()) {
+            assertThrows(SQLException.class, pool::borrow);
+        }
+        try (var conn = pool.borrow()) {
+            assertNotNull(conn);
+        }
+        assertEquals(2, opened.get());
+    }
+
+    @Test
+    void resetsReturnedConnection() throws SQLException {
+        var conn = pool.borrow();
+        conn.setAutoCommit(false);
+        conn.close();
+
+        try (var again = pool.borrow()) {
+            assertTrue(again.getAutoCommit(), "Returned connection should be reset to auto-commit");
+        }
+        assertEquals(1, opened.get());
+    }
+
+    /**
+     * Hands out fake connections that only track catalog, auto-commit and
+     * closed state.
+     */
+    private static class StubDriver implements Driver {
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            opened.incrementAndGet();
+            var state = new Object() {
+                String catalog;
+                boolean autoCommit = true;
+                boolean isClosed;
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "setCatalog" -> {
+                            state.catalog = (String) args[0];
+                            yield null;
+                        }
+                        case "getCatalog" -> state.catalog;
+                        case "setAutoCommit" -> {
+                            state.autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "getAutoCommit" -> state.autoCommit;
+                        case "close" -> {
+                            if (!state.isClosed) {
+                                state.isClosed = true;
+                                closed.incrementAndGet();
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> state.isClosed;
+                        case "isValid" -> !state.isClosed;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import model.GameData;
 import model.AuthData;
 import model.UserData;
@@ -162,6 +164,16 @@ public class DataAccessTests {
         assertThrows(DataAccessException.class, () -> dataAccess.createGame(gameData));
     }
 
+    @Test
+    void createGameAssignsID() throws DataAccessException {
+        int first = dataAccess.createGame(new GameData(0, null, null, "Game1", new ChessGame()));
+        int second = dataAccess.createGame(new GameData(0, null, null, "Game2", new ChessGame()));
+
+        assertNotEquals(first, second);
+        assertEquals("Game1", dataAccess.getGame(first).gameName());
+        assertEquals("Game2", dataAccess.getGame(second).gameName());
+    }
+
     @Test
     void getGamePositive() throws DataAccessException {
         ChessGame game = new ChessGame();
@@ -202,6 +214,45 @@ public class DataAccessTests {
         assertDoesNotThrow(() -> dataAccess.updateGame(gameData));
     }
 
+    @Test
+    void updateGameStale() throws DataAccessException {
+        dataAccess.createGame(new GameData(1, null, null, "TestGame", new ChessGame()));
+        GameData stale = dataAccess.getGame(1);
+        dataAccess.appendMove(1, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null).pack());
+
+        assertThrows(DataAccessException.class,
+                () -> dataAccess.updateGame(new GameData(1, "white", null, "TestGame", stale.game())));
+        assertEquals(ChessGame.TeamColor.BLACK, dataAccess.getGame(1).game().getTeamTurn(),
+                "The logged move should survive a stale update");
+    }
+
+    @Test
+    void appendMovePositive() throws DataAccessException {
+        dataAccess.createGame(new GameData(1, null, null, "TestGame", new ChessGame()));
+
+        // Shuffle knights out and back past a snapshot, then one more move
+        ChessGame expected = new ChessGame();
+        int[] knightMoves = {
+                new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null).pack(),
+                new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null).pack(),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null).pack(),
+                new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null).pack()};
+        for (int ply = 0; ply < MySQLDataAccess.SNAPSHOT_INTERVAL + 1; ply++) {
+            int move = knightMoves[ply % knightMoves.length];
+            dataAccess.appendMove(1, move);
+            expected.makeMove(move);
+        }
+
+        GameData result = dataAccess.getGame(1);
+        assertEquals(expected, result.game());
+    }
+
+    @Test
+    void appendMoveNegative() {
+        int move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null).pack();
+        assertThrows(DataAccessException.class, () -> dataAccess.appendMove(999, move));
+    }
+
     @Test
     void listGamesPositive() throws DataAccessException {
         ChessGame game1 = new ChessGame();
@@ -209,13 +260,31 @@ public class DataAccessTests {
         dataAccess.createGame(new GameData(1, null, null, "Game1", game1));
         dataAccess.createGame(new GameData(2, null, null, "Game2", game2));
 
-        var games = dataAccess.listGames();
+        var games = dataAccess.listGameSummaries(0, Integer.MAX_VALUE);
         assertEquals(2, games.size());
     }
 
+    @Test
+    void listGameSummariesPositive() throws DataAccessException {
+        dataAccess.createGame(new GameData(1, "white", null, "Game1", new ChessGame()));
+        dataAccess.createGame(new GameData(2, null, null, "Game2", new ChessGame()));
+        dataAccess.createGame(new GameData(3, null, null, "Game3", new ChessGame()));
+
+        var page = dataAccess.listGameSummaries(1, 1);
+        assertEquals(1, page.size());
+        assertEquals(2, page.get(0).gameID());
+        assertEquals("white", dataAccess.listGameSummaries(0, 10).get(0).whiteUsername());
+    }
+
+    @Test
+    void listGameSummariesNegative() throws DataAccessException {
+        dataAccess.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+        assertTrue(dataAccess.listGameSummaries(1, 10).isEmpty());
+    }
+
     @Test
     void listGamesNegative() throws DataAccessException {
-        var games = dataAccess.listGames();
+        var games = dataAccess.listGameSummaries(0, Integer.MAX_VALUE);
         assertNotNull(games);
         assertEquals(0, games.size());
     }
@@ -227,6 +296,6 @@ public class DataAccessTests {
 
         dataAccess.clearGames();
 
-        assertEquals(0, dataAccess.listGames().size());
+        assertEquals(0, dataAccess.listGameSummaries(0, Integer.MAX_VALUE).size());
     }
 }
\ No newline at end of file
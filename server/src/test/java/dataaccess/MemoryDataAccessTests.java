@@ -0,0 +1,85 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryDataAccessTests {
+
+    @Test
+    void concurrentGameCreation() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(executor.submit(() -> {
+                    ids.add(dataAccess.createGame(new GameData(0, null, null, "Game", new ChessGame())));
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(1000, ids.size(), "Game IDs should be unique");
+        assertEquals(1000, dataAccess.listGameSummaries(0, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void listGameSummariesIsSnapshot() throws DataAccessException {
+        var dataAccess = new MemoryDataAccess();
+        dataAccess.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+
+        var games = dataAccess.listGameSummaries(0, Integer.MAX_VALUE);
+        dataAccess.createGame(new GameData(2, null, null, "Game2", new ChessGame()));
+
+        assertEquals(1, games.size(), "Listed games should not change after the call");
+    }
+
+    @Test
+    void storedGamesAreCopies() throws DataAccessException {
+        var dataAccess = new MemoryDataAccess();
+        var created = new ChessGame();
+        dataAccess.createGame(new GameData(1, null, null, "Game1", created));
+        created.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null).pack());
+
+        GameData read = dataAccess.getGame(1);
+        assertEquals(new ChessGame(), read.game(), "Changing the created game should not change the stored one");
+        dataAccess.appendMove(1, new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null).pack());
+        assertEquals(new ChessGame(), read.game(), "A logged move should not change a game already read");
+    }
+
+    @Test
+    void updateGameStale() throws DataAccessException {
+        var dataAccess = new MemoryDataAccess();
+        dataAccess.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+        GameData stale = dataAccess.getGame(1);
+        dataAccess.appendMove(1, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null).pack());
+
+        assertThrows(DataAccessException.class,
+                () -> dataAccess.updateGame(new GameData(1, "white", null, "Game1", stale.game())));
+        assertEquals(ChessGame.TeamColor.BLACK, dataAccess.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    void duplicateGameRejected() throws DataAccessException {
+        var dataAccess = new MemoryDataAccess();
+        var game = new GameData(1, null, null, "Game1", new ChessGame());
+        dataAccess.createGame(game);
+
+        assertThrows(DataAccessException.class, () -> dataAccess.createGame(game));
+    }
+}
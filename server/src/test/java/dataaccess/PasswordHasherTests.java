@@ -0,0 +1,54 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTests {
+
+    @Test
+    void hashesAndChecks() throws DataAccessException {
+        var hasher = new PasswordHasher(4, 1, 1);
+        String hash = hasher.hash("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"), "Hash should use the configured cost");
+        assertTrue(hasher.check("password123", hash));
+        assertFalse(hasher.check("wrong", hash));
+    }
+
+    @Test
+    void rejectsBadCost() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(3, 1, 1));
+    }
+
+    @Test
+    void refusesWorkWhenClosed() {
+        var hasher = new PasswordHasher(4, 1, 1);
+        hasher.close();
+
+        assertThrows(PasswordHasher.BusyException.class, () -> hasher.hash("password123"));
+    }
+
+    @Test
+    void refusesWorkWhenSaturated() throws Exception {
+        var hasher = new PasswordHasher(14, 1, 1);
+        Runnable slowHash = () -> {
+            try {
+                hasher.hash("password123");
+            }
+            catch (DataAccessException ignored) {
+                // Only the saturated call below is under test
+            }
+        };
+        var running = new Thread(slowHash);
+        var queued = new Thread(slowHash);
+        running.start();
+        Thread.sleep(100);
+        queued.start();
+        Thread.sleep(100);
+
+        assertThrows(PasswordHasher.BusyException.class, () -> hasher.hash("password123"));
+        running.join();
+        queued.join();
+    }
+}
@@ -0,0 +1,36 @@
+package server;
+
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PinningMonitorTests {
+
+    @Test
+    void reportsBlockingInsideSynchronized() throws Exception {
+        var reported = new CompletableFuture<RecordedEvent>();
+        Object monitor = new Object();
+
+        try (var pinning = new PinningMonitor(Duration.ofMillis(10), reported::complete)) {
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(50);
+                    }
+                    catch (InterruptedException ignored) {
+                        // Only the time spent pinned matters
+                    }
+                }
+            }).join();
+
+            RecordedEvent event = reported.get(10, TimeUnit.SECONDS);
+            assertTrue(event.getDuration().toMillis() >= 10, "Pin should last at least the threshold");
+            assertNotNull(event.getStackTrace(), "Pinned thread's stack should be recorded");
+        }
+    }
+}
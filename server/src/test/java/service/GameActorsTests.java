@@ -0,0 +1,235 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameActorsTests {
+
+    @Test
+    void concurrentMovesApplyOnce() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        var gameService = new GameService(dataAccess, new GameActors(dataAccess));
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        var start = new CountDownLatch(1);
+        Callable<Boolean> move = () -> {
+            start.await();
+            try {
+                gameService.makeMove("white", gameID,
+                        new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+                return true;
+            }
+            catch (ServiceException e) {
+                return false;
+            }
+        };
+
+        int succeeded = 0;
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(move));
+            }
+            start.countDown();
+            for (var future : futures) {
+                succeeded += future.get() ? 1 : 0;
+            }
+        }
+
+        assertEquals(1, succeeded, "Only the first of the racing moves should be played");
+        // A later command only runs once earlier writes are saved
+        assertEquals(ChessGame.TeamColor.BLACK, gameService.connect("white", gameID).game.game().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.BLACK, dataAccess.getGame(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    void failedWriteReloadsGame() throws Exception {
+        var dataAccess = new MemoryDataAccess() {
+            boolean fail = true;
+
+            @Override
+            public void appendMove(int gameID, int move) throws DataAccessException {
+                if (fail) {
+                    fail = false;
+                    throw new DataAccessException("disk full");
+                }
+                super.appendMove(gameID, move);
+            }
+        };
+        var gameService = new GameService(dataAccess);
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        var e = assertThrows(ServiceException.class, () -> gameService.makeMove("white", gameID,
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                update -> fail("An unsaved move should not be announced")));
+        assertEquals(500, e.getStatusCode());
+
+        assertEquals(ChessGame.TeamColor.WHITE, gameService.connect("white", gameID).game.game().getTeamTurn(),
+                "The unsaved move should be dropped with the live copy");
+        assertEquals(ChessGame.TeamColor.WHITE, dataAccess.getGame(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    void announcesAfterSaving() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        var gameService = new GameService(dataAccess, new GameActors(dataAccess));
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        var announced = new ArrayList<ChessGame.TeamColor>();
+        gameService.makeMove("white", gameID, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                update -> {
+                    try {
+                        announced.add(dataAccess.getGame(gameID).game().getTeamTurn());
+                    }
+                    catch (DataAccessException e) {
+                        fail(e);
+                    }
+                });
+
+        assertEquals(List.of(ChessGame.TeamColor.BLACK), announced,
+                "The move should be announced once, after it is saved");
+    }
+
+    @Test
+    void idleGamesAreDropped() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        var actors = new GameActors(dataAccess, Runnable::run, 0);
+        var gameService = new GameService(dataAccess, actors);
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int first = gameService.createGame("white", "First").gameID;
+        int second = gameService.createGame("white", "Second").gameID;
+        gameService.joinGame("white", "WHITE", first);
+        gameService.makeMove("white", first, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals(1, actors.size());
+
+        gameService.connect("white", second);
+        assertEquals(1, actors.size(), "The idle game's mailbox should have been dropped");
+
+        assertEquals(ChessGame.TeamColor.BLACK, gameService.connect("white", first).game.game().getTeamTurn(),
+                "A dropped game should be reloaded with its moves");
+    }
+
+    @Test
+    void closeWaitsForQueuedCommands() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        var actors = new GameActors(dataAccess);
+        var gameService = new GameService(dataAccess, actors);
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        actors.close();
+
+        assertEquals("whiteuser", dataAccess.getGame(gameID).whiteUsername(),
+                "Writes should be saved before close returns");
+    }
+
+    @Test
+    void clearDropsQueuedCommands() throws Exception {
+        var dataAccess = new MemoryDataAccess();
+        var actors = new GameActors(dataAccess);
+        var gameService = new GameService(dataAccess, actors);
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        int gameID = gameService.createGame("white", "Old Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        // Hold the mailbox with a running command, queue a move behind it, then clear
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blocker = Thread.ofPlatform().start(() -> {
+            try {
+                actors.call(gameID, live -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return null;
+                });
+            }
+            catch (ServiceException | DataAccessException e) {
+                fail(e);
+            }
+        });
+        started.await();
+
+        var moveStatus = new AtomicInteger();
+        var mover = Thread.ofPlatform().start(() -> {
+            try {
+                gameService.makeMove("white", gameID,
+                        new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            }
+            catch (ServiceException e) {
+                moveStatus.set(e.getStatusCode());
+            }
+        });
+        awaitWaiting(mover);
+
+        var clearer = Thread.ofPlatform().start(() -> {
+            try {
+                actors.clear();
+            }
+            catch (DataAccessException e) {
+                fail(e);
+            }
+        });
+        awaitWaiting(clearer);
+        release.countDown();
+        blocker.join();
+        clearer.join();
+        mover.join();
+
+        assertEquals(400, moveStatus.get(), "A command queued before the clear should be rejected");
+        assertEquals(0, actors.size());
+
+        int newID = gameService.createGame("white", "New Game").gameID;
+        assertEquals(gameID, newID, "The test relies on the cleared ID being reused");
+        assertEquals(ChessGame.TeamColor.WHITE, dataAccess.getGame(newID).game().getTeamTurn(),
+                "The old game's move should not land in the new game");
+        assertNull(dataAccess.getGame(newID).whiteUsername());
+        actors.close();
+    }
+
+    @Test
+    void unknownGameRejected() {
+        var dataAccess = new MemoryDataAccess();
+        var actors = new GameActors(dataAccess);
+
+        var e = assertThrows(ServiceException.class, () -> actors.call(42, live -> live.data()));
+        assertEquals(400, e.getStatusCode());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for a thread to block, such as on a mailbox's answer or a lock
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import dataaccess.DataAccess;
 import dataaccess.MemoryDataAccess;
 import model.AuthData;
@@ -148,4 +151,199 @@ public class GameServiceTest {
             assertTrue(e.getMessage().contains("bad request"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMakeMoveSuccess() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        String authToken = "test123";
+        dataAccess.createAuth(new AuthData(authToken, "testuser"));
+        GameService.CreateGameResult createResult = gameService.createGame(authToken, "Test Game");
+        gameService.joinGame(authToken, "WHITE", createResult.gameID);
+
+        gameService.makeMove(authToken, createResult.gameID,
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        ChessGame game = dataAccess.getGame(createResult.gameID).game();
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertNotNull(game.getBoard().getPiece(new ChessPosition(4, 5)));
+    }
+
+    @Test
+    public void testMakeMoveNotYourTurn() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        String authToken = "test123";
+        dataAccess.createAuth(new AuthData(authToken, "testuser"));
+        GameService.CreateGameResult createResult = gameService.createGame(authToken, "Test Game");
+        gameService.joinGame(authToken, "BLACK", createResult.gameID);
+
+        try {
+            gameService.makeMove(authToken, createResult.gameID,
+                    new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("not your turn"));
+        }
+    }
+
+    @Test
+    public void testMakeMoveInvalid() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        String authToken = "test123";
+        dataAccess.createAuth(new AuthData(authToken, "testuser"));
+        GameService.CreateGameResult createResult = gameService.createGame(authToken, "Test Game");
+        gameService.joinGame(authToken, "WHITE", createResult.gameID);
+
+        try {
+            gameService.makeMove(authToken, createResult.gameID,
+                    new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null));
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("invalid move"));
+        }
+        assertEquals(ChessGame.TeamColor.WHITE, dataAccess.getGame(createResult.gameID).game().getTeamTurn());
+    }
+
+    @Test
+    public void testListGamesPaged() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        String authToken = "test123";
+        dataAccess.createAuth(new AuthData(authToken, "testuser"));
+        for (int i = 0; i < 5; i++) {
+            gameService.createGame(authToken, "Game " + i);
+        }
+
+        GameService.ListGamesResult first = gameService.listGames(authToken, 2, 0);
+        assertEquals(2, first.games.size());
+        assertNotNull(first.nextCursor);
+
+        GameService.ListGamesResult second = gameService.listGames(authToken, 2, first.nextCursor);
+        GameService.ListGamesResult third = gameService.listGames(authToken, 2, second.nextCursor);
+        assertEquals(2, second.games.size());
+        assertEquals(1, third.games.size());
+        assertNull(third.nextCursor);
+        assertEquals("Game 4", third.games.get(0).gameName());
+    }
+
+    @Test
+    public void testListGamesBadPageSize() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        String authToken = "test123";
+        dataAccess.createAuth(new AuthData(authToken, "testuser"));
+
+        try {
+            gameService.listGames(authToken, GameService.MAX_PAGE_SIZE + 1, 0);
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("bad request"));
+        }
+    }
+
+    @Test
+    public void testCheckmateEndsGame() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        dataAccess.createAuth(new AuthData("black", "blackuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+        gameService.joinGame("black", "BLACK", gameID);
+
+        // Fool's mate
+        gameService.makeMove("white", gameID, new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        gameService.makeMove("black", gameID, new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        gameService.makeMove("white", gameID, new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        GameService.GameUpdate update = gameService.makeMove("black", gameID,
+                new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        assertTrue(update.game.game().isGameOver());
+        assertTrue(dataAccess.getGame(gameID).game().isGameOver());
+        try {
+            gameService.makeMove("white", gameID, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("game is over"));
+        }
+    }
+
+    @Test
+    public void testMakeMoveOpponentPiece() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        dataAccess.createAuth(new AuthData("black", "blackuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+        gameService.joinGame("black", "BLACK", gameID);
+        gameService.makeMove("white", gameID, new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        try {
+            gameService.makeMove("black", gameID, new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("invalid move"));
+        }
+    }
+
+    @Test
+    public void testResign() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        dataAccess.createAuth(new AuthData("observer", "observer"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+
+        try {
+            gameService.resign("observer", gameID);
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertEquals(403, e.getStatusCode());
+        }
+
+        gameService.resign("white", gameID);
+        assertTrue(dataAccess.getGame(gameID).game().isGameOver());
+        try {
+            gameService.resign("white", gameID);
+            fail("Should have thrown exception");
+        }
+        catch (ServiceException e) {
+            assertTrue(e.getMessage().contains("game is over"));
+        }
+    }
+
+    @Test
+    public void testLeaveFreesSeat() throws Exception {
+        DataAccess dataAccess = new MemoryDataAccess();
+        GameService gameService = new GameService(dataAccess);
+
+        dataAccess.createAuth(new AuthData("white", "whiteuser"));
+        dataAccess.createAuth(new AuthData("black", "blackuser"));
+        int gameID = gameService.createGame("white", "Test Game").gameID;
+        gameService.joinGame("white", "WHITE", gameID);
+        gameService.joinGame("black", "BLACK", gameID);
+
+        gameService.leaveGame("white", gameID);
+
+        assertNull(dataAccess.getGame(gameID).whiteUsername());
+        assertEquals("blackuser", dataAccess.getGame(gameID).blackUsername());
+    }
+}
@@ -5,14 +5,26 @@ import java.util.Arrays;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as bitboards: one 64-bit word per colored piece type,
+ * plus an occupancy word per team, along with per-team material and a Zobrist
+ * key that are updated as pieces are added and moved. Square 0 is row 1,
+ * column 1 and square 63 is row 8, column 8.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    private static final int[] PIECE_VALUES = {0, 9, 3, 3, 5, 1};
+
+    private long[] bitboards = new long[12];
+    private long[] occupancy = new long[2];
+    private int[] material = new int[2];
+    private long zobristKey;
+    private transient long version;
+
     public ChessBoard() {
-        
+
     }
 
     /**
@@ -22,7 +34,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = square(position);
+        removePiece(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -33,7 +49,8 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        int index = pieceIndexAt(square(position));
+        return index < 0 ? null : ChessPiece.of(index);
     }
 
     @Override
@@ -43,12 +60,12 @@ public class ChessBoard {
         }
 
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(squares, that.squares);
+        return Arrays.equals(bitboards, that.bitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(zobristKey);
     }
 
     /**
@@ -56,31 +73,265 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
-        addPiece(new ChessPosition(1,1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1,2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1,3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1,4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1,5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1,6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1,7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1,8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        bitboards = new long[12];
+        occupancy = new long[2];
+        material = new int[2];
+        zobristKey = 0;
+        addPiece(ChessPosition.of(1,1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1,2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1,3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1,4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1,5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1,6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1,7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1,8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
 
         for (int col = 1; col < 9; col ++) {
-            addPiece(new ChessPosition(2,col), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2,col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
-        addPiece(new ChessPosition(8,1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8,2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8,3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8,4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8,5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8,6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8,7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8,8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8,1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8,2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8,3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8,4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8,5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8,6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8,7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8,8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
 
         for (int col = 1; col < 9; col ++) {
-            addPiece(new ChessPosition(7,col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7,col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        }
+    }
+
+    /**
+     * Sets up a board from the piece placement field of Forsyth-Edwards
+     * Notation. Any fields after the placement are ignored.
+     *
+     * @param fen a FEN string or just its piece placement field
+     * @return a new board with those pieces
+     * @throws IllegalArgumentException if the placement is not valid FEN
+     */
+    public static ChessBoard fromFen(String fen) {
+        return Fen.parseBoard(fen);
+    }
+
+    /**
+     * @return the piece placement field of Forsyth-Edwards Notation for this board
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Determines if any piece of a team attacks a square, regardless of whose
+     * turn it is or whether the attacking piece is pinned
+     *
+     * @param square the square to test
+     * @param byColor the team that may be attacking it
+     * @return True if a piece of byColor attacks the square
+     * @throws IndexOutOfBoundsException if the square is off the board
+     */
+    public boolean isSquareAttacked(ChessPosition square, ChessGame.TeamColor byColor) {
+        return MoveGenerator.isAttacked(this, square(square), byColor.ordinal(), occupied());
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on this board. The key is kept up to
+     * date as pieces are added and moved, and equal boards always have equal
+     * keys. It does not include whose turn it is, see
+     * {@link ChessGame#getZobristKey()}.
+     *
+     * @return the 64-bit Zobrist key
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets the material a team has on the board, counting pawns as 1, knights
+     * and bishops as 3, rooks as 5 and queens as 9
+     *
+     * @param color the team to count material for
+     * @return the team's material
+     */
+    public int getMaterial(ChessGame.TeamColor color) {
+        return material[color.ordinal()];
+    }
+
+    /**
+     * @return the square index (0-63) for a 1-based row and column
+     */
+    static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    /**
+     * @return the square index (0-63) for a position
+     * @throws IndexOutOfBoundsException if the position is off the board
+     */
+    static int square(ChessPosition position) {
+        if (!onBoard(position)) {
+            throw new IndexOutOfBoundsException("Position " + position + " is off the board");
+        }
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return whether a position's row and column are both 1 to 8
+     */
+    static boolean onBoard(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * @return the bitboard slot (0-11) used for a colored piece type
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the bitboard of all squares occupied by the given team
+     */
+    long occupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return the bitboard of all squares occupied by the given team (0 white, 1 black)
+     */
+    long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    /**
+     * @return the bitboard stored in a slot (0-11), see {@link #pieceIndex}
+     */
+    long bitboard(int index) {
+        return bitboards[index];
+    }
+
+    /**
+     * @return the square (0-63) of the given team's king, or 64 if it has none
+     */
+    int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(bitboards[color * 6 + ChessPiece.PieceType.KING.ordinal()]);
+    }
+
+    /**
+     * @return a counter that changes every time a piece is placed or removed
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * @return the bitboard of all occupied squares
+     */
+    long occupied() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * @return the bitboard slot of the piece on a square, or -1 if it is empty
+     */
+    int pieceIndexAt(int square) {
+        long bit = 1L << square;
+        int color;
+        if ((occupancy[0] & bit) != 0) {
+            color = 0;
+        }
+        else if ((occupancy[1] & bit) != 0) {
+            color = 1;
+        }
+        else {
+            return -1;
         }
+
+        int base = color * 6;
+        for (int i = base; i < base + 6; i++) {
+            if ((bitboards[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Plays a packed move (see {@link MoveList}) without checking that it is
+     * valid. Only the squares the move touches are updated.
+     *
+     * @return a token that {@link #unmakeMove(int)} uses to restore the board
+     */
+    int makeMove(int move) {
+        int from = MoveList.from(move);
+        int to = MoveList.to(move);
+        int promotion = MoveList.promotionCode(move);
+
+        int piece = pieceIndexAt(from);
+        int captured = pieceIndexAt(to);
+        clearPiece(from, piece);
+        if (captured >= 0) {
+            clearPiece(to, captured);
+        }
+        putPiece(to, promotion == 0 ? piece : (piece / 6) * 6 + promotion - 1);
+
+        return (move & 0x7FFF) | (piece << 15) | ((captured + 1) << 19);
+    }
+
+    /**
+     * Takes back a move played with {@link #makeMove(int)}
+     *
+     * @param undo the token makeMove returned
+     */
+    void unmakeMove(int undo) {
+        int from = MoveList.from(undo);
+        int to = MoveList.to(undo);
+        int promotion = MoveList.promotionCode(undo);
+        int piece = (undo >>> 15) & 15;
+        int captured = ((undo >>> 19) & 15) - 1;
+
+        clearPiece(to, promotion == 0 ? piece : (piece / 6) * 6 + promotion - 1);
+        putPiece(from, piece);
+        if (captured >= 0) {
+            putPiece(to, captured);
+        }
+    }
+
+    /**
+     * Places the piece for a bitboard slot on an empty square
+     */
+    void putPiece(int square, int index) {
+        long bit = 1L << square;
+        bitboards[index] |= bit;
+        occupancy[index / 6] |= bit;
+        material[index / 6] += PIECE_VALUES[index % 6];
+        zobristKey ^= Zobrist.piece(index, square);
+        version++;
+    }
+
+    /**
+     * Clears a square
+     *
+     * @return the bitboard slot of the piece that was removed, or -1 if the square was empty
+     */
+    int removePiece(int square) {
+        int index = pieceIndexAt(square);
+        if (index >= 0) {
+            clearPiece(square, index);
+        }
+        return index;
+    }
+
+    private void clearPiece(int square, int index) {
+        long mask = ~(1L << square);
+        bitboards[index] &= mask;
+        occupancy[index / 6] &= mask;
+        material[index / 6] -= PIECE_VALUES[index % 6];
+        zobristKey ^= Zobrist.piece(index, square);
+        version++;
     }
 }
@@ -1,7 +1,6 @@
 package chess;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -14,6 +13,11 @@ import java.util.Objects;
 public class ChessGame {
     private TeamColor teamTurn;
     private ChessBoard board;
+    private boolean gameOver;
+    private transient MoveList scratchMoves;
+    private transient int[] undoStack;
+    private transient int undoCount;
+    private transient Status[] status;
 
     public ChessGame() {
         this.teamTurn = TeamColor.WHITE;
@@ -21,6 +25,17 @@ public class ChessGame {
         this.board.resetBoard();
     }
 
+    /**
+     * Sets up a game at a given position, without building the starting board first
+     *
+     * @param board    the board to play on, used as is rather than copied
+     * @param teamTurn the team to move first
+     */
+    public ChessGame(ChessBoard board, TeamColor teamTurn) {
+        this.teamTurn = teamTurn;
+        this.board = board;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -33,9 +48,41 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        int result = Objects.hashCode(teamTurn);
-        result = 31 * result + Objects.hashCode(board);
-        return result;
+        return Long.hashCode(getZobristKey());
+    }
+
+    /**
+     * Gets the Zobrist key of this game's position: the board's key combined
+     * with whose turn it is. Equal games always have equal keys, so the key
+     * can be used for position caches and repetition detection.
+     *
+     * @return the 64-bit Zobrist key
+     */
+    public long getZobristKey() {
+        long key = (board == null) ? 0 : board.getZobristKey();
+        return (teamTurn == TeamColor.BLACK) ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
+    /**
+     * Sets up a game from Forsyth-Edwards Notation, e.g.
+     * {@code "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1"}.
+     * Castling, en passant and the move clocks are not modelled, so those
+     * fields may be present but are ignored.
+     *
+     * @param fen the position, with at least the piece placement field
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parseGame(fen);
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation, with "- - 0 1"
+     * for the castling, en passant and clock fields
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     /**
@@ -54,6 +101,23 @@ public class ChessGame {
         teamTurn = team;
     }
 
+    /**
+     * @return whether the game has ended, by checkmate, stalemate or resignation
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Marks the game as ended. This is bookkeeping for the server; moves on
+     * this object are not blocked by it.
+     *
+     * @param gameOver whether the game has ended
+     */
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -67,25 +131,42 @@ public class ChessGame {
      *
      * @param startPosition the piece to get valid moves for
      * @return Set of valid moves for requested piece, or null if no piece at
-     * startPosition
+     * startPosition or it is off the board
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        List<ChessMove> validMoves = new ArrayList<>();
-
-        ChessPiece piece = board.getPiece(startPosition);
-        if (piece == null) {
+        if (!ChessBoard.onBoard(startPosition) || board.getPiece(startPosition) == null) {
             return null;
         }
 
-        Collection<ChessMove> possibilities = piece.pieceMoves(board, startPosition);
+        MoveList moves = new MoveList(32);
+        validMoves(startPosition, moves);
+        return moves.toChessMoves();
+    }
 
-        for (ChessMove possibleMove : possibilities) {
-            if (isValid(possibleMove)) {
-                validMoves.add(possibleMove);
-            }
+    /**
+     * Appends the valid moves for a piece at the given location to a reusable
+     * buffer, packed as described in {@link MoveList}. Nothing is appended if
+     * there is no piece at startPosition or it is off the board.
+     *
+     * @param startPosition the piece to get valid moves for
+     * @param moves         buffer the moves are appended to
+     */
+    public void validMoves(ChessPosition startPosition, MoveList moves) {
+        if (!ChessBoard.onBoard(startPosition)) {
+            return;
         }
+        addValidMoves(1L << ChessBoard.square(startPosition), moves);
+    }
 
-        return validMoves;
+    /**
+     * Appends the valid moves for every piece of a team to a reusable buffer,
+     * packed as described in {@link MoveList}.
+     *
+     * @param teamColor the team to get valid moves for
+     * @param moves     buffer the moves are appended to
+     */
+    public void allValidMoves(TeamColor teamColor, MoveList moves) {
+        MoveGenerator.legalMoves(board, teamColor.ordinal(), -1L, moves);
     }
 
     /**
@@ -95,6 +176,9 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        if (!isOnBoard(move)) {
+            throw new InvalidMoveException();
+        }
         ChessPiece piece = board.getPiece(move.getStartPosition());
 
         if (piece == null) {
@@ -108,16 +192,57 @@ public class ChessGame {
             throw new InvalidMoveException();
         }
 
-        ChessPiece newPiece = board.getPiece(move.getStartPosition());
-        board.addPiece(move.getStartPosition(), null);
+        // Only this move can be taken back, so a long game doesn't grow the stack
+        undoCount = 0;
+        makeMove(move.pack());
+    }
 
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(), new ChessPiece(newPiece.getTeamColor(), move.getPromotionPiece()));
+    /**
+     * Plays a packed move (see {@link MoveList}) without checking that it is
+     * valid, and remembers how to take it back with {@link #unmakeMove()}.
+     * Meant for walking the game tree with moves from
+     * {@link #allValidMoves(TeamColor, MoveList)}; moves that are kept should
+     * be played with {@link #applyMove(int)}.
+     *
+     * @param move the packed move to play
+     */
+    public void makeMove(int move) {
+        if (undoStack == null) {
+            undoStack = new int[64];
         }
-        else {
-            board.addPiece(move.getEndPosition(), newPiece);
+        else if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
         }
+        undoStack[undoCount++] = board.makeMove(move);
+        teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Plays a packed move (see {@link MoveList}) that is already known to be
+     * valid, such as one replayed from a saved game, without remembering it.
+     * Moves played before it can no longer be taken back, so replaying a
+     * long game keeps no undo history.
+     *
+     * @param move the packed move to play
+     */
+    public void applyMove(int move) {
+        undoCount = 0;
+        board.makeMove(move);
+        teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
 
+    /**
+     * Takes back the last move played with {@link #makeMove(int)}, or the
+     * move played with {@link #makeMove(ChessMove)} if nothing has been played
+     * since. A validated move forgets the moves before it.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        board.unmakeMove(undoStack[--undoCount]);
         teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
@@ -128,11 +253,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition king = kingPosition(teamColor);
-        if (king == null) {
-            return false;
-        }
-        return isKingUnderAttack(king, teamColor);
+        return isInCheck(teamColor.ordinal());
     }
 
     /**
@@ -142,11 +263,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-
-        return !hasValidMoves(teamColor);
+        Status current = status(teamColor);
+        return current.inCheck && current.validMoveCount == 0;
     }
 
     /**
@@ -157,11 +275,20 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
+        Status current = status(teamColor);
+        return !current.inCheck && current.validMoveCount == 0;
+    }
 
-        return !hasValidMoves(teamColor);
+    /**
+     * Counts the valid moves the given team has. The count is cached until the
+     * board changes, so polling checkmate, stalemate and this count on an
+     * unchanged game does not regenerate moves.
+     *
+     * @param teamColor which team to count moves for
+     * @return the number of valid moves
+     */
+    public int validMoveCount(TeamColor teamColor) {
+        return status(teamColor).validMoveCount;
     }
 
     /**
@@ -171,6 +298,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        undoCount = 0;
     }
 
     /**
@@ -182,100 +310,72 @@ public class ChessGame {
         return board;
     }
 
-    private ChessPosition kingPosition(TeamColor teamColor) {
-        for (int row = 1; row < 9; row ++) {
-            for (int col = 1; col < 9; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    return position;
-                }
-            }
+    private MoveList scratchMoves() {
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
         }
-        return null;
+        scratchMoves.clear();
+        return scratchMoves;
     }
 
-    private boolean isValid (ChessMove move) {
-        ChessPiece startPiece = board.getPiece(move.getStartPosition());
-        ChessPiece endPiece = board.getPiece(move.getEndPosition());
-
-        Collection<ChessMove> possibilities = startPiece.pieceMoves(board, move.getStartPosition());
-        boolean isValid = false;
-
-        for (ChessMove possibility : possibilities) {
-            if (possibility.equals(move)) {
-                isValid = true;
-                break;
-            }
-        }
-
-        if (!isValid) {
-            return false;
-        }
-
-        try {
-            board.addPiece(move.getStartPosition(), null);
-
-            if (move.getPromotionPiece() != null ) {
-                board.addPiece(move.getEndPosition(), new ChessPiece(startPiece.getTeamColor(), move.getPromotionPiece()));
-            }
-            else {
-                board.addPiece(move.getEndPosition(), startPiece);
-            }
-
-            boolean isKingInCheck = isInCheck(startPiece.getTeamColor());
+    private boolean isInCheck(int color) {
+        int king = board.kingSquare(color);
+        return king < 64 && MoveGenerator.isAttacked(board, king, 1 - color, board.occupied());
+    }
 
-            return !isKingInCheck;
+    private void addValidMoves(long squares, MoveList moves) {
+        if ((board.occupancy(TeamColor.WHITE) & squares) != 0) {
+            MoveGenerator.legalMoves(board, TeamColor.WHITE.ordinal(), squares, moves);
         }
-        finally {
-            board.addPiece(move.getStartPosition(), startPiece);
-            board.addPiece(move.getEndPosition(), endPiece);
+        if ((board.occupancy(TeamColor.BLACK) & squares) != 0) {
+            MoveGenerator.legalMoves(board, TeamColor.BLACK.ordinal(), squares, moves);
         }
     }
 
-    private boolean hasValidMoves(TeamColor teamColor) {
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
+    // Checked before packing, since off-board squares would wrap into other squares
+    private static boolean isOnBoard(ChessMove move) {
+        return ChessBoard.onBoard(move.getStartPosition()) && ChessBoard.onBoard(move.getEndPosition());
+    }
 
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
+    private boolean isValid (ChessMove move) {
+        if (!isOnBoard(move)) {
+            return false;
         }
-        return false;
-    }
+        int packed = move.pack();
+        MoveList possibilities = scratchMoves();
+        addValidMoves(1L << MoveList.from(packed), possibilities);
 
-    private boolean isKingUnderAttack(ChessPosition king, TeamColor teamColor) {
-        TeamColor opposingColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return possibilities.contains(packed);
+    }
 
-        for (int row=1; row<9; row++) {
-            for (int col=1; col<9; col++) {
-                ChessPosition opposingPosition = new ChessPosition(row, col);
-                ChessPiece opposingPiece = board.getPiece(opposingPosition);
+    /**
+     * Gets a team's cached status, recomputing it if the board was replaced or
+     * has changed since it was computed.
+     */
+    private Status status(TeamColor teamColor) {
+        if (status == null) {
+            status = new Status[] {new Status(), new Status()};
+        }
 
-                if (opposingPiece != null && opposingPiece.getTeamColor() == opposingColor) {
-                    if (canAttackKing(opposingPiece, opposingPosition, king)) {
-                        return true;
-                    }
-                }
-            }
+        Status current = status[teamColor.ordinal()];
+        if (current.board != board || current.version != board.version()) {
+            MoveList moves = scratchMoves();
+            allValidMoves(teamColor, moves);
+            current.board = board;
+            current.version = board.version();
+            current.inCheck = isInCheck(teamColor.ordinal());
+            current.validMoveCount = moves.size();
         }
-        return false;
+        return current;
     }
 
-    private boolean canAttackKing(ChessPiece piece, ChessPosition position, ChessPosition king) {
-        Collection<ChessMove> moves = piece.pieceMoves(board, position);
-        for (ChessMove move : moves) {
-            if (move.getEndPosition().equals(king)) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Check and move count for one team, valid for one version of one board
+     */
+    private static class Status {
+        ChessBoard board;
+        long version;
+        boolean inCheck;
+        int validMoveCount;
     }
 }
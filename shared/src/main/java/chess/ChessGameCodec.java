@@ -0,0 +1,97 @@
+package chess;
+
+/**
+ * Compact binary form of a game for storage. The layout is a two byte header
+ * followed by the board, one nibble per square:
+ * <pre>
+ * byte 0      format version ({@link #VERSION})
+ * byte 1      flags, bit 0 set when it is black's turn, bit 1 when the game is over
+ * bytes 2-33  squares a1, b1 ... h8, low nibble first; 0 is empty,
+ *             otherwise the piece's bitboard slot plus one
+ * </pre>
+ * The version byte can never be '{', so readers can tell these blobs apart
+ * from the JSON games stored before this format existed.
+ */
+public final class ChessGameCodec {
+
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 34;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int HEADER = 2;
+
+    private ChessGameCodec() {
+    }
+
+    /**
+     * @return the game's board, side to move and whether it is over in binary form
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = encode(game.getBoard());
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            bytes[1] |= BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            bytes[1] |= GAME_OVER;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the board in binary form, with white to move
+     */
+    public static byte[] encode(ChessBoard board) {
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+        for (int index = 0; index < 12; index++) {
+            long pieces = board.bitboard(index);
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                bytes[HEADER + (square >> 1)] |= (byte) ((index + 1) << ((square & 1) << 2));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @return a new game set up from bytes written by {@link #encode(ChessGame)}
+     * @throws IllegalArgumentException if the bytes are not in a known format
+     */
+    public static ChessGame decode(byte[] bytes) {
+        ChessGame game = new ChessGame(decodeBoard(bytes),
+                (bytes[1] & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((bytes[1] & GAME_OVER) != 0);
+        return game;
+    }
+
+    /**
+     * @return a new board set up from bytes written by either encode method
+     * @throws IllegalArgumentException if the bytes are not in a known format
+     */
+    public static ChessBoard decodeBoard(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int nibble = (bytes[HEADER + (square >> 1)] >> ((square & 1) << 2)) & 0xF;
+            if (nibble > 12) {
+                throw new IllegalArgumentException("Bad piece code " + nibble + " on square " + square);
+            }
+            if (nibble != 0) {
+                board.putPiece(square, nibble - 1);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return whether the bytes start with a header this codec can read
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length == LENGTH && bytes[0] == VERSION;
+    }
+}
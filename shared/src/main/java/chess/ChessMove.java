@@ -63,6 +63,27 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * @return this move packed into an int, see {@link MoveList}
+     * @throws IndexOutOfBoundsException if either position is off the board
+     */
+    public int pack() {
+        int from = ChessBoard.square(startPosition);
+        int to = ChessBoard.square(endPosition);
+        return MoveList.pack(from, to, promotionPiece);
+    }
+
+    /**
+     * Expands a packed move, see {@link MoveList}
+     *
+     * @param move the packed move
+     * @return the equivalent ChessMove
+     */
+    public static ChessMove unpack(int move) {
+        return new ChessMove(ChessPosition.of(MoveList.from(move)), ChessPosition.of(MoveList.to(move)),
+                MoveList.promotion(move));
+    }
+
     @Override
     public String toString() {
         return String.format("%s%s", startPosition, endPosition);
@@ -1,9 +1,7 @@
 package chess;
 
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
-import java.util.ArrayList;
 
 /**
  * Represents a single chess piece
@@ -13,6 +11,16 @@ import java.util.ArrayList;
  */
 public class ChessPiece {
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
@@ -20,6 +28,25 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a colored piece. Pieces are immutable, so
+     * the 12 possible pieces are created once and reused.
+     *
+     * @param pieceColor the team the piece belongs to
+     * @param type       the type of piece
+     * @return the piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return the shared piece for a bitboard slot (0-11), see {@link ChessBoard}
+     */
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -71,163 +98,20 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        ChessPiece piece = board.getPiece(myPosition);
-        return switch (piece.getPieceType()) {
-            case BISHOP -> bishopMovesCalculator(board, myPosition, piece);
-            case KING -> kingMovesCalculator(board, myPosition, piece);
-            case KNIGHT -> knightMovesCalculator(board, myPosition, piece);
-            case PAWN -> pawnMovesCalculator(board, myPosition, piece);
-            case QUEEN -> queenMovesCalculator(board, myPosition, piece);
-            case ROOK -> rookMovesCalculator(board, myPosition, piece);
-        };
-    }
-
-    private Collection<ChessMove> bishopMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        int [][] directions = {{-1,-1},{-1,1},{1,-1},{1,1}};
-        return calculateMoves(board, myPosition, directions, 8);
-    }
-
-    private Collection<ChessMove> kingMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        int [][] directions = {{-1,1},{0,1},{1,1},{1,0},{1,-1},{0,-1},{-1,-1},{-1,0}};
-        return calculateMoves(board, myPosition, directions, 1);
-    }
-
-    private Collection<ChessMove> knightMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        int [][] directions = {{-1,2},{1,2},{2,1},{2,-1},{-1,-2},{1,-2},{-2,-1},{-2,1}};
-        return calculateMoves(board, myPosition, directions, 1);
-    }
-
-    private Collection<ChessMove> pawnMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        List<ChessMove> possibilities = new ArrayList<>();
-        PawnMovementParams params = getPawnMovementParams(piece);
-        addForwardMoves(possibilities, board, myPosition, params);
-        addCaptureMoves(possibilities, board, myPosition, params);
-
-        return possibilities;
-    }
-
-    private PawnMovementParams getPawnMovementParams(ChessPiece piece) {
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            return new PawnMovementParams(2, 1, 8);
-        }
-        else {
-            return new PawnMovementParams(7, -1, 1);
-        }
-    }
-
-    private void addForwardMoves(List<ChessMove> possibilities, ChessBoard board,
-                                 ChessPosition myPosition, PawnMovementParams params) {
-        int row = myPosition.getRow() + params.direction;
-
-        if (row > 0 && row < 9) {
-            ChessPosition destination = new ChessPosition(row, myPosition.getColumn());
-            ChessPiece target = board.getPiece(destination);
-
-            if (target == null) {
-                addPromotionMoves(possibilities, myPosition, destination, row, params.promotionPoint);
-
-                if (myPosition.getRow() == params.startingPoint) {
-                    addDoubleMove(possibilities, board, myPosition, params);
-                }
-            }
-        }
+        MoveList moves = new MoveList(32);
+        pieceMoves(board, myPosition, moves);
+        return moves.toChessMoves();
     }
 
-    private void addPromotionMoves(List<ChessMove> possibilities, ChessPosition myPosition,
-                                   ChessPosition destination, int row, int promotionPoint) {
-        if (row == promotionPoint) {
-            possibilities.add(new ChessMove(myPosition, destination, PieceType.BISHOP));
-            possibilities.add(new ChessMove(myPosition, destination, PieceType.KNIGHT));
-            possibilities.add(new ChessMove(myPosition, destination, PieceType.QUEEN));
-            possibilities.add(new ChessMove(myPosition, destination, PieceType.ROOK));
-        }
-        else {
-            possibilities.add(new ChessMove(myPosition, destination, null));
-        }
-    }
-
-    private void addDoubleMove(List<ChessMove> possibilities, ChessBoard board,
-                               ChessPosition myPosition, PawnMovementParams params) {
-        int twicePoint = myPosition.getRow() + (params.direction * 2);
-
-        if (twicePoint > 0 && twicePoint < 9) {
-            ChessPosition twiceDestination = new ChessPosition(twicePoint, myPosition.getColumn());
-            ChessPiece twiceTarget = board.getPiece(twiceDestination);
-
-            if (twiceTarget == null) {
-                possibilities.add(new ChessMove(myPosition, twiceDestination, null));
-            }
-        }
-    }
-
-    private void addCaptureMoves(List<ChessMove> possibilities, ChessBoard board,
-                                 ChessPosition myPosition, PawnMovementParams params) {
-        int row = myPosition.getRow() + params.direction;
-        int[] captureCol = {myPosition.getColumn() - 1, myPosition.getColumn() + 1};
-
-        for (int col : captureCol) {
-            if (col > 0 && col < 9) {
-                ChessPosition captureDestination = new ChessPosition(row, col);
-                ChessPiece captureTarget = board.getPiece(captureDestination);
-
-                if (captureTarget != null && captureTarget.getTeamColor() != getTeamColor()) {
-                    addPromotionMoves(possibilities, myPosition, captureDestination, row, params.promotionPoint);
-                }
-            }
-        }
-    }
-
-    private static class PawnMovementParams {
-        final int startingPoint;
-        final int direction;
-        final int promotionPoint;
-
-        PawnMovementParams(int startingPoint, int direction, int promotionPoint) {
-            this.startingPoint = startingPoint;
-            this.direction = direction;
-            this.promotionPoint = promotionPoint;
-        }
-    }
-
-    private Collection<ChessMove> queenMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        int [][] directions = {{-1,1},{0,1},{1,1},{1,0},{1,-1},{0,-1},{-1,-1},{-1,0}};
-        return calculateMoves(board, myPosition, directions, 8);
-    }
-
-    private Collection<ChessMove> rookMovesCalculator(ChessBoard board, ChessPosition myPosition, ChessPiece piece) {
-        int [][] directions = {{0,1},{1,0},{0,-1},{-1,0}};
-        return calculateMoves(board, myPosition, directions, 8);
-    }
-
-    private Collection<ChessMove> calculateMoves(ChessBoard board, ChessPosition myPosition,
-                                                 int[][] directions, int maxDistance) {
-        List<ChessMove> possibilities = new ArrayList<>();
-
-        for (int[] direction : directions) {
-            int row = myPosition.getRow() + direction[0];
-            int col = myPosition.getColumn() + direction[1];
-
-            for (int i = 0; i < maxDistance; i++) {
-                if (row < 1 || row > 8 || col < 1 || col > 8) {
-                    break;
-                }
-
-                ChessPosition destination = new ChessPosition(row, col);
-                ChessPiece target = board.getPiece(destination);
-
-                if (target == null) {
-                    possibilities.add(new ChessMove(myPosition, destination, null));
-                }
-                else {
-                    if (target.getTeamColor() != getTeamColor()) {
-                        possibilities.add(new ChessMove(myPosition, destination, null));
-                    }
-                    break;
-                }
-                row += direction[0];
-                col += direction[1];
-            }
-        }
-        return possibilities;
+    /**
+     * Appends all the moves a chess piece can make to a reusable buffer, packed
+     * as described in {@link MoveList}. Like {@link #pieceMoves(ChessBoard, ChessPosition)}
+     * this does not take into account moves that leave the king in danger.
+     *
+     * @param moves buffer the moves are appended to
+     * @throws IndexOutOfBoundsException if myPosition is off the board
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveList moves) {
+        MoveGenerator.pieceMoves(board, ChessBoard.square(myPosition), moves);
     }
 }
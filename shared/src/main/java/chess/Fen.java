@@ -0,0 +1,219 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation. Parsing walks the string once
+ * and places pieces straight into the board's bitboards, without splitting
+ * the string into fields.
+ * <p>
+ * This engine has no castling, en passant or move clocks, so those fields are
+ * written as "- - 0 1". When read they must be well formed, e.g. "KQq", "e3"
+ * and digits for the clocks, but are otherwise ignored.
+ */
+final class Fen {
+
+    static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    // Indexed by bitboard slot: white KQBNRP, then black kqbnrp
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * Sets up a game from a full FEN string. Only the piece placement field is
+     * required; side to move defaults to white.
+     */
+    static ChessGame parseGame(String fen) {
+        ChessBoard board = new ChessBoard();
+        int i = parsePlacement(fen, board);
+
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        i = skipSpaces(fen, i);
+        if (i < fen.length()) {
+            turn = switch (fen.charAt(i)) {
+                case 'w' -> ChessGame.TeamColor.WHITE;
+                case 'b' -> ChessGame.TeamColor.BLACK;
+                default -> throw error(fen, i, "side to move must be 'w' or 'b'");
+            };
+            i = endOfField(fen, i + 1, "side to move must be 'w' or 'b'");
+        }
+
+        // Castling, en passant and the two clocks: checked, not modelled
+        i = skipCastling(fen, skipSpaces(fen, i));
+        i = skipEnPassant(fen, skipSpaces(fen, i));
+        i = skipNumber(fen, skipSpaces(fen, i), "halfmove clock");
+        i = skipNumber(fen, skipSpaces(fen, i), "fullmove number");
+        if (skipSpaces(fen, i) != fen.length()) {
+            throw error(fen, i, "unexpected trailing text");
+        }
+
+        return new ChessGame(board, turn);
+    }
+
+    /**
+     * Sets up a board from a FEN string. Anything after the piece placement
+     * field is ignored.
+     */
+    static ChessBoard parseBoard(String fen) {
+        ChessBoard board = new ChessBoard();
+        parsePlacement(fen, board);
+        return board;
+    }
+
+    static String format(ChessGame game) {
+        StringBuilder fen = new StringBuilder(64);
+        formatPlacement(game.getBoard(), fen);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b" : " w");
+        fen.append(" - - 0 1");
+        return fen.toString();
+    }
+
+    static String format(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(64);
+        formatPlacement(board, fen);
+        return fen.toString();
+    }
+
+    /**
+     * Reads the piece placement field into an empty board.
+     *
+     * @return the index just past the field
+     */
+    private static int parsePlacement(String fen, ChessBoard board) {
+        int row = 8;
+        int col = 1;
+        int i = skipSpaces(fen, 0);
+        for (; i < fen.length(); i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw error(fen, i, "row " + row + " does not have 8 squares");
+                }
+                row--;
+                col = 1;
+            }
+            else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) {
+                    throw error(fen, i, "row " + row + " has more than 8 squares");
+                }
+            }
+            else {
+                int index = PIECE_CHARS.indexOf(c);
+                if (index < 0) {
+                    throw error(fen, i, "unknown piece '" + c + "'");
+                }
+                if (col > 8) {
+                    throw error(fen, i, "row " + row + " has more than 8 squares");
+                }
+                board.putPiece(ChessBoard.square(row, col), index);
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw error(fen, i, "piece placement must describe 8 full rows");
+        }
+        return i;
+    }
+
+    private static void formatPlacement(ChessBoard board, StringBuilder fen) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int index = board.pieceIndexAt(ChessBoard.square(row, col));
+                if (index < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_CHARS.charAt(index));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Skips a castling field: "-" or some of "KQkq". An absent field is allowed.
+     *
+     * @return the index just past the field
+     */
+    private static int skipCastling(String fen, int i) {
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            return endOfField(fen, i + 1, "castling must be '-' or letters from KQkq");
+        }
+        int start = i;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            if ("KQkq".indexOf(fen.charAt(i)) < 0 || i - start >= 4) {
+                throw error(fen, i, "castling must be '-' or letters from KQkq");
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Skips an en passant field: "-" or a square on the third or sixth row.
+     * An absent field is allowed.
+     *
+     * @return the index just past the field
+     */
+    private static int skipEnPassant(String fen, int i) {
+        if (i >= fen.length()) {
+            return i;
+        }
+        char c = fen.charAt(i);
+        if (c == '-') {
+            return endOfField(fen, i + 1, "en passant must be '-' or a square");
+        }
+        if (c < 'a' || c > 'h' || i + 1 >= fen.length()
+                || (fen.charAt(i + 1) != '3' && fen.charAt(i + 1) != '6')) {
+            throw error(fen, i, "en passant must be '-' or a square");
+        }
+        return endOfField(fen, i + 2, "en passant must be '-' or a square");
+    }
+
+    /**
+     * Skips a field of digits. An absent field is allowed.
+     *
+     * @return the index just past the field
+     */
+    private static int skipNumber(String fen, int i, String field) {
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            if (fen.charAt(i) < '0' || fen.charAt(i) > '9') {
+                throw error(fen, i, field + " must be a number");
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return i, after checking that a field ends there
+     */
+    private static int endOfField(String fen, int i, String message) {
+        if (i < fen.length() && fen.charAt(i) != ' ') {
+            throw error(fen, i, message);
+        }
+        return i;
+    }
+
+    private static int skipSpaces(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException error(String fen, int index, String message) {
+        return new IllegalArgumentException("Bad FEN \"" + fen + "\" at " + index + ": " + message);
+    }
+}
@@ -0,0 +1,215 @@
+package chess;
+
+/**
+ * Generates moves straight from a {@link ChessBoard}'s bitboards into a
+ * {@link MoveList}, without allocating.
+ * <p>
+ * {@link #pieceMoves} produces pseudo-legal moves: they follow how each piece
+ * moves but do not take into account moves that leave the king in danger.
+ * {@link #legalMoves} produces only legal moves. It finds the pieces giving
+ * check and the pieces pinned to their king once per call, then restricts
+ * each piece's targets to squares that resolve the check and stay on the pin
+ * line, so no move has to be played to test it.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final int[] PROMOTIONS = {QUEEN + 1, ROOK + 1, BISHOP + 1, KNIGHT + 1};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends the pseudo-legal moves of the piece on a square, if there is one
+     */
+    static void pieceMoves(ChessBoard board, int from, MoveList moves) {
+        int piece = board.pieceIndexAt(from);
+        if (piece >= 0) {
+            addPieceMoves(board, piece, from, -1L, moves);
+        }
+    }
+
+    /**
+     * Appends the legal moves of a team's pieces that stand on the given squares
+     *
+     * @param color  the team to move (0 white, 1 black)
+     * @param origin bitboard of the squares to generate moves from
+     */
+    static void legalMoves(ChessBoard board, int color, long origin, MoveList moves) {
+        long own = board.occupancy(color) & origin;
+        int king = board.kingSquare(color);
+        if (king == 64) {
+            for (; own != 0; own &= own - 1) {
+                int from = Long.numberOfTrailingZeros(own);
+                addPieceMoves(board, board.pieceIndexAt(from), from, -1L, moves);
+            }
+            return;
+        }
+
+        int them = 1 - color;
+        long occupied = board.occupied();
+        long kingBit = 1L << king;
+
+        if ((own & kingBit) != 0) {
+            long targets = Bitboards.kingAttacks(king) & ~board.occupancy(color);
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (!isAttacked(board, to, them, occupied ^ kingBit)) {
+                    moves.add(MoveList.pack(king, to, 0));
+                }
+            }
+            own ^= kingBit;
+        }
+
+        long checkers = attackersTo(board, king, them, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        long checkMask = -1L;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = Bitboards.between(king, checker) | checkers;
+        }
+
+        long pinned = pinnedPieces(board, color, king, occupied);
+        for (; own != 0; own &= own - 1) {
+            int from = Long.numberOfTrailingZeros(own);
+            long mask = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                mask &= Bitboards.line(king, from);
+            }
+            addPieceMoves(board, board.pieceIndexAt(from), from, mask, moves);
+        }
+    }
+
+    /**
+     * @return the pieces of a team (0 white, 1 black) that attack a square,
+     * given an occupancy to slide through
+     */
+    static long attackersTo(ChessBoard board, int square, int color, long occupied) {
+        int base = color * 6;
+        long queens = board.bitboard(base + QUEEN);
+        return (Bitboards.pawnAttacks(1 - color, square) & board.bitboard(base + PAWN))
+                | (Bitboards.knightAttacks(square) & board.bitboard(base + KNIGHT))
+                | (Bitboards.kingAttacks(square) & board.bitboard(base + KING))
+                | (Bitboards.bishopAttacks(square, occupied) & (board.bitboard(base + BISHOP) | queens))
+                | (Bitboards.rookAttacks(square, occupied) & (board.bitboard(base + ROOK) | queens));
+    }
+
+    /**
+     * Looks outward from a square for a piece of the given team (0 white,
+     * 1 black) that attacks it: knight jumps, pawn diagonals and king steps
+     * first, then the diagonal and straight rays. Returns on the first hit.
+     *
+     * @param occupied the occupancy sliders are blocked by
+     */
+    static boolean isAttacked(ChessBoard board, int square, int color, long occupied) {
+        int base = color * 6;
+        if ((Bitboards.knightAttacks(square) & board.bitboard(base + KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Bitboards.pawnAttacks(1 - color, square) & board.bitboard(base + PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.kingAttacks(square) & board.bitboard(base + KING)) != 0) {
+            return true;
+        }
+
+        long queens = board.bitboard(base + QUEEN);
+        long diagonal = board.bitboard(base + BISHOP) | queens;
+        if (diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0) {
+            return true;
+        }
+        long straight = board.bitboard(base + ROOK) | queens;
+        return straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * @return the squares a piece attacks from a square, given the board's occupancy
+     */
+    static long attacks(int piece, int square, long occupied) {
+        return switch (TYPES[piece % 6]) {
+            case KING -> Bitboards.kingAttacks(square);
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case PAWN -> Bitboards.pawnAttacks(piece / 6, square);
+        };
+    }
+
+    /**
+     * @return the team's pieces that are the only blocker between their king and
+     * an enemy slider
+     */
+    private static long pinnedPieces(ChessBoard board, int color, int king, long occupied) {
+        int base = (1 - color) * 6;
+        long queens = board.bitboard(base + QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0) & (board.bitboard(base + ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0) & (board.bitboard(base + BISHOP) | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.occupancy(color);
+            }
+        }
+        return pinned;
+    }
+
+    private static void addPieceMoves(ChessBoard board, int piece, int from, long mask, MoveList moves) {
+        int color = piece / 6;
+        if (piece % 6 == PAWN) {
+            pawnMoves(board, from, color, mask, moves);
+        }
+        else {
+            long targets = attacks(piece, from, board.occupied()) & ~board.occupancy(color) & mask;
+            for (; targets != 0; targets &= targets - 1) {
+                moves.add(MoveList.pack(from, Long.numberOfTrailingZeros(targets), 0));
+            }
+        }
+    }
+
+    private static void pawnMoves(ChessBoard board, int from, int color, long mask, MoveList moves) {
+        long empty = ~board.occupied();
+        int forward = (color == 0) ? 8 : -8;
+        int startRow = (color == 0) ? 1 : 6;
+
+        int to = from + forward;
+        if (to >= 0 && to < 64 && (empty & (1L << to)) != 0) {
+            if ((mask & (1L << to)) != 0) {
+                addPawnMove(from, to, moves);
+            }
+
+            int twice = to + forward;
+            if ((from >>> 3) == startRow && (empty & mask & (1L << twice)) != 0) {
+                moves.add(MoveList.pack(from, twice, 0));
+            }
+        }
+
+        long captures = Bitboards.pawnAttacks(color, from) & board.occupancy(1 - color) & mask;
+        for (; captures != 0; captures &= captures - 1) {
+            addPawnMove(from, Long.numberOfTrailingZeros(captures), moves);
+        }
+    }
+
+    private static void addPawnMove(int from, int to, MoveList moves) {
+        int row = to >>> 3;
+        if (row == 0 || row == 7) {
+            for (int promotion : PROMOTIONS) {
+                moves.add(MoveList.pack(from, to, promotion));
+            }
+        }
+        else {
+            moves.add(MoveList.pack(from, to, 0));
+        }
+    }
+}
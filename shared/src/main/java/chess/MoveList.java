@@ -0,0 +1,122 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable buffer of moves packed into ints, so move generation can run
+ * without allocating a {@link ChessMove} per candidate.
+ * <p>
+ * A packed move holds the start square in bits 0-5, the end square in bits
+ * 6-11 and the promotion piece in bits 12-14 (0 for none, otherwise the
+ * {@link ChessPiece.PieceType} ordinal plus one). Squares are numbered 0-63
+ * from row 1, column 1.
+ */
+public final class MoveList {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /**
+     * Packs a move into an int
+     *
+     * @param from      start square (0-63)
+     * @param to        end square (0-63)
+     * @param promotion piece type to promote to, or null if no promotion
+     * @return the packed move
+     */
+    public static int pack(int from, int to, ChessPiece.PieceType promotion) {
+        return pack(from, to, promotion == null ? 0 : promotion.ordinal() + 1);
+    }
+
+    static int pack(int from, int to, int promotionCode) {
+        return from | (to << 6) | (promotionCode << 12);
+    }
+
+    /**
+     * @return the start square (0-63) of a packed move
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @return the end square (0-63) of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type of a packed move, or null if none
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = promotionCode(move);
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    /**
+     * @return the raw promotion bits of a packed move: 0 for none, otherwise the
+     * piece type ordinal plus one
+     */
+    static int promotionCode(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return true if the packed move is in this list
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ChessMove.unpack(moves[i]));
+        }
+        return result;
+    }
+}
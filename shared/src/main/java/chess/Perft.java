@@ -0,0 +1,115 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth (perft).
+ * Node counts for well-known positions catch move generator bugs, and the
+ * time taken measures raw move generation throughput.
+ * <p>
+ * This engine does not implement castling or en passant, so counts only match
+ * published references for positions and depths where neither is possible.
+ * <p>
+ * Run as a benchmark with {@code java -cp shared/target/classes chess.Perft [maxDepth]}
+ * to time every reference position, or {@code chess.Perft "<fen>" maxDepth} to
+ * time one position.
+ */
+public final class Perft {
+
+    // Standard perft reference positions, numbered as on the Chess Programming Wiki
+    static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+    static final String PROMOTIONS = "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1";
+
+    // Timed by main; the default depths keep each position under a second
+    private static final String[] NAMES = {"starting position", "position 3", "position 6", "promotions"};
+    private static final String[] POSITIONS = {Fen.STARTING_POSITION, POSITION_3, POSITION_6, PROMOTIONS};
+    private static final int[] DEFAULT_DEPTHS = {5, 5, 4, 4};
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the positions reachable in exactly depth moves from the game's
+     * current position, playing for whichever team's turn it is. The game is
+     * left as it was found.
+     *
+     * @param game  the game to search from
+     * @param depth number of moves to look ahead
+     * @return number of leaf positions
+     */
+    public static long perft(ChessGame game, int depth) {
+        MoveList[] buffers = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+        return perft(game, depth, buffers);
+    }
+
+    /**
+     * Splits the perft count by first move, which narrows down where two move
+     * generators disagree.
+     *
+     * @param game  the game to search from
+     * @param depth number of moves to look ahead, at least 1
+     * @return the leaf count under each legal first move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        MoveList moves = new MoveList();
+        game.allValidMoves(game.getTeamTurn(), moves);
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.makeMove(move);
+            counts.put(ChessMove.unpack(move), depth <= 1 ? 1 : perft(game, depth - 1));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveList moves = buffers[depth - 1];
+        moves.clear();
+        game.allValidMoves(game.getTeamTurn(), moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += perft(game, depth - 1, buffers);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 2) {
+            time(args[0], ChessGame.fromFen(args[0]), Integer.parseInt(args[1]));
+            return;
+        }
+
+        for (int i = 0; i < POSITIONS.length; i++) {
+            int maxDepth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTHS[i];
+            time(NAMES[i], ChessGame.fromFen(POSITIONS[i]), maxDepth);
+        }
+    }
+
+    private static void time(String name, ChessGame game, int maxDepth) {
+        System.out.println(name);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft(game, depth);
+            long elapsed = Math.max(System.nanoTime() - start, 1);
+            System.out.printf("  depth %d: %,d nodes in %.1f ms (%,.0f nodes/s)%n",
+                    depth, nodes, elapsed / 1e6, nodes * 1e9 / elapsed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * piece on a square, plus {@link #BLACK_TO_MOVE} when it is black's turn, so a
+ * move only has to XOR out and in the squares it touches.
+ * <p>
+ * The keys come from a fixed-seed generator, so every process computes the
+ * same key for the same position and keys can be shared between services.
+ */
+final class Zobrist {
+
+    static final long BLACK_TO_MOVE;
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+
+    static {
+        long seed = 0x43484553535A4F42L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a bitboard slot (0-11) on a square (0-63)
+     */
+    static long piece(int index, int square) {
+        return PIECE_SQUARE[(index << 6) | square];
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,7 @@
+package model;
+
+/**
+ * The fields of a game shown in a game list, without the board.
+ */
+public record GameSummary (int gameID, String whiteUsername, String blackUsername, String gameName) {
+}
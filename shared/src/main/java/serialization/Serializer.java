@@ -0,0 +1,235 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * The Gson instance shared by the client and server. Gson is thread-safe and
+ * caches its type adapters, so one instance is built and reused rather than
+ * creating one per request.
+ * <p>
+ * The chess types are written by hand-written streaming adapters instead of
+ * reflection. Positions, pieces and moves keep the same field names Gson's
+ * reflection would use, so their JSON is unchanged. Boards are written as
+ * the piece placement field of a FEN string, and games as that board plus
+ * the side to move and whether the game is over.
+ */
+public final class Serializer {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(ChessPosition.class, new PositionAdapter().nullSafe())
+            .registerTypeAdapter(ChessPiece.class, new PieceAdapter().nullSafe())
+            .registerTypeAdapter(ChessMove.class, new MoveAdapter().nullSafe())
+            .registerTypeAdapter(ChessBoard.class, new BoardAdapter().nullSafe())
+            .registerTypeAdapter(ChessGame.class, new GameAdapter().nullSafe())
+            .create();
+
+    private Serializer() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static String toJson(Object object) {
+        return GSON.toJson(object);
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    private static final class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("col").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, col);
+        }
+    }
+
+    private static final class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceColor").value(piece.getTeamColor().name());
+            out.name("type").value(piece.getPieceType().name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = readEnum(in, ChessGame.TeamColor.class);
+                    case "type" -> type = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new JsonParseException("Piece needs a pieceColor and type at " + in.getPath());
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final PositionAdapter positions = new PositionAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.beginObject();
+            out.name("startPosition");
+            positions.write(out, move.getStartPosition());
+            out.name("endPosition");
+            positions.write(out, move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                out.name("promotionPiece").value(move.getPromotionPiece().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = readPosition(in);
+                    case "endPosition" -> end = readPosition(in);
+                    case "promotionPiece" -> promotion = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+
+        private ChessPosition readPosition(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return positions.read(in);
+        }
+    }
+
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.value(board.toFen());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            String fen = in.nextString();
+            try {
+                return ChessBoard.fromFen(fen);
+            }
+            catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+    }
+
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        private final BoardAdapter boards = new BoardAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            out.name("teamTurn").value(game.getTeamTurn().name());
+            out.name("board");
+            boards.write(out, game.getBoard());
+            out.name("gameOver").value(game.isGameOver());
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+            ChessBoard board = null;
+            boolean hasBoard = false;
+            boolean gameOver = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "teamTurn" -> {
+                        ChessGame.TeamColor read = readEnum(in, ChessGame.TeamColor.class);
+                        if (read != null) {
+                            turn = read;
+                        }
+                    }
+                    case "board" -> {
+                        board = boards.read(in);
+                        hasBoard = true;
+                    }
+                    case "gameOver" -> gameOver = in.nextBoolean();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            // The starting board is only built when the JSON has no board of its own
+            ChessGame game;
+            if (hasBoard) {
+                game = new ChessGame(board, turn);
+            }
+            else {
+                game = new ChessGame();
+                game.setTeamTurn(turn);
+            }
+            game.setGameOver(gameOver);
+            return game;
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String name = in.nextString();
+        try {
+            return Enum.valueOf(type, name);
+        }
+        catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown " + type.getSimpleName() + " \"" + name + "\" at " + in.getPath());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package websocket.commands;
+
+import chess.ChessMove;
+
+import java.util.Objects;
+
+/**
+ * A MAKE_MOVE command, carrying the move to make
+ */
+public class MakeMoveCommand extends UserGameCommand {
+
+    private final ChessMove move;
+
+    public MakeMoveCommand(String authToken, Integer gameID, ChessMove move) {
+        super(CommandType.MAKE_MOVE, authToken, gameID);
+        this.move = move;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MakeMoveCommand that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(getMove(), that.getMove());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getMove());
+    }
+}
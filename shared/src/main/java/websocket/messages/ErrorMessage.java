@@ -0,0 +1,36 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells a client that its command was rejected, and why
+ */
+public class ErrorMessage extends ServerMessage {
+
+    private final String errorMessage;
+
+    public ErrorMessage(String errorMessage) {
+        super(ServerMessageType.ERROR);
+        this.errorMessage = errorMessage;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ErrorMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(getErrorMessage(), that.getErrorMessage());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getErrorMessage());
+    }
+}
@@ -0,0 +1,38 @@
+package websocket.messages;
+
+import chess.ChessGame;
+
+import java.util.Objects;
+
+/**
+ * Sends a client the current state of its game, to redraw the board
+ */
+public class LoadGameMessage extends ServerMessage {
+
+    private final ChessGame game;
+
+    public LoadGameMessage(ChessGame game) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = game;
+    }
+
+    public ChessGame getGame() {
+        return game;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LoadGameMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(getGame(), that.getGame());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getGame());
+    }
+}
@@ -0,0 +1,36 @@
+package websocket.messages;
+
+import java.util.Objects;
+
+/**
+ * Tells a client about something another player or observer did
+ */
+public class NotificationMessage extends ServerMessage {
+
+    private final String message;
+
+    public NotificationMessage(String message) {
+        super(ServerMessageType.NOTIFICATION);
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NotificationMessage that)) {
+            return false;
+        }
+        return super.equals(o) && Objects.equals(getMessage(), that.getMessage());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), getMessage());
+    }
+}
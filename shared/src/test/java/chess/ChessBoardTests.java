@@ -0,0 +1,31 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessBoardTests {
+
+    @Test
+    @DisplayName("Square Attacks")
+    public void squareAttacks() {
+        ChessBoard board = ChessBoard.fromFen("4k3/8/8/8/8/8/8/R3K3");
+
+        Assertions.assertTrue(board.isSquareAttacked(new ChessPosition(8, 1), ChessGame.TeamColor.WHITE),
+                "The rook should attack up its file");
+        Assertions.assertFalse(board.isSquareAttacked(new ChessPosition(8, 2), ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(board.isSquareAttacked(new ChessPosition(7, 4), ChessGame.TeamColor.BLACK),
+                "The king should attack the squares next to it");
+    }
+
+    @Test
+    @DisplayName("Off Board Square Attacks Are Rejected")
+    public void offBoardSquareAttacks() {
+        ChessBoard board = ChessBoard.fromFen("4k3/8/8/8/8/8/8/R3K3");
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> board.isSquareAttacked(new ChessPosition(9, 1), ChessGame.TeamColor.WHITE));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> board.isSquareAttacked(new ChessPosition(1, 0), ChessGame.TeamColor.BLACK));
+    }
+}
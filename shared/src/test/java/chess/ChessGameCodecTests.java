@@ -0,0 +1,52 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameCodecTests {
+
+    @Test
+    @DisplayName("Starting Position Round Trip")
+    public void startingPosition() {
+        ChessGame game = new ChessGame();
+        byte[] bytes = ChessGameCodec.encode(game);
+
+        Assertions.assertEquals(ChessGameCodec.LENGTH, bytes.length, "Encoded game has the wrong length");
+        Assertions.assertEquals(game, ChessGameCodec.decode(bytes), "Decoded game differs from the original");
+    }
+
+    @Test
+    @DisplayName("Side To Move Round Trip")
+    public void sideToMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, decoded.getTeamTurn(), "Side to move was lost");
+        Assertions.assertEquals(game.getBoard(), decoded.getBoard(), "Board was not restored");
+        Assertions.assertEquals(game.getZobristKey(), decoded.getZobristKey(), "Decoded game hashes differently");
+    }
+
+    @Test
+    @DisplayName("Game Over Round Trip")
+    public void gameOver() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+
+        Assertions.assertTrue(ChessGameCodec.decode(ChessGameCodec.encode(game)).isGameOver(), "Game over was lost");
+        Assertions.assertFalse(ChessGameCodec.decode(ChessGameCodec.encode(new ChessGame())).isGameOver());
+    }
+
+    @Test
+    @DisplayName("Rejects Unknown Formats")
+    public void rejectsUnknownFormats() {
+        byte[] json = "{\"teamTurn\":\"WHITE\"}".getBytes();
+        Assertions.assertFalse(ChessGameCodec.isEncoded(json), "JSON should not look like an encoded game");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(json));
+
+        byte[] bytes = ChessGameCodec.encode(new ChessGame());
+        bytes[2] = (byte) 0xFF;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(bytes));
+    }
+}
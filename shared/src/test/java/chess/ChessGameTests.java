@@ -0,0 +1,55 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameTests {
+
+    @Test
+    @DisplayName("Off Board Moves Are Rejected")
+    public void offBoardMoves() {
+        ChessGame game = ChessGame.fromFen("4k3/P7/8/8/8/8/8/4K3 w");
+        ChessBoard before = ChessBoard.fromFen(game.getBoard().toFen());
+
+        // Row 16 would wrap onto a8 and spill into the promotion bits if packed
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(
+                new ChessMove(new ChessPosition(7, 1), new ChessPosition(16, 1), ChessPiece.PieceType.ROOK)));
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(
+                new ChessMove(new ChessPosition(0, 1), new ChessPosition(1, 1), null)));
+        Assertions.assertEquals(before, game.getBoard(), "Rejected moves should leave the board alone");
+
+        Assertions.assertNull(game.validMoves(new ChessPosition(9, 1)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> game.getBoard().getPiece(new ChessPosition(9, 1)));
+        ChessPiece pawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> pawn.pieceMoves(game.getBoard(), new ChessPosition(9, 1), new MoveList()));
+    }
+
+    @Test
+    @DisplayName("Validated Moves Keep One Undo")
+    public void validatedMovesKeepOneUndo() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessBoard afterFirst = ChessBoard.fromFen(game.getBoard().toFen());
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+
+        game.unmakeMove();
+        Assertions.assertEquals(afterFirst, game.getBoard(), "The last validated move should be taken back");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertThrows(IllegalStateException.class, game::unmakeMove,
+                "Moves before the last validated move should not be kept");
+    }
+
+    @Test
+    @DisplayName("Applied Moves Keep No Undo")
+    public void appliedMovesKeepNoUndo() {
+        ChessGame game = new ChessGame();
+        game.applyMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null).pack());
+        game.applyMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null).pack());
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertThrows(IllegalStateException.class, game::unmakeMove,
+                "Applied moves should not be kept for taking back");
+    }
+}
@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        Assertions.assertEquals(Fen.STARTING_POSITION, new ChessGame().toFen(), "Wrong FEN for a new game");
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(Fen.STARTING_POSITION),
+                "Parsed starting position differs from a new game");
+    }
+
+    @Test
+    @DisplayName("Round Trip After A Move")
+    public void roundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        String fen = game.toFen();
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1", fen);
+        Assertions.assertEquals(game, ChessGame.fromFen(fen), "Parsed game differs from the original");
+    }
+
+    @Test
+    @DisplayName("Board Placement Only")
+    public void boardOnly() {
+        ChessBoard board = ChessBoard.fromFen("8/8/8/3k4/8/8/8/4K3");
+        Assertions.assertEquals("8/8/8/3k4/8/8/8/4K3", board.toFen());
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING),
+                board.getPiece(ChessPosition.of(5, 4)));
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, ChessGame.fromFen("8/8/8/3k4/8/8/8/4K3").getTeamTurn(),
+                "Side to move should default to white");
+    }
+
+    @Test
+    @DisplayName("Castling And En Passant Fields Are Ignored")
+    public void ignoredFields() {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2");
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Malformed FEN")
+    public void malformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("9/8/8/8/8/8/8/8 w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/7x w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 x"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/4K4 w"));
+    }
+
+    @Test
+    @DisplayName("Ignored Fields Must Be Well Formed")
+    public void malformedIgnoredFields() {
+        String placement = "4k3/8/8/8/8/8/8/4K3 ";
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "wx"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "w KX"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "w KQkqK"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "w - e4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "w - - x 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(placement + "w - - 0 1 2"));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, ChessGame.fromFen(placement + "b Kq e3 12").getTeamTurn());
+    }
+}
@@ -0,0 +1,108 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Perft node counts from the standard reference positions. Depths are limited
+ * to those where castling and en passant cannot occur, since this engine does
+ * not implement them.
+ */
+public class PerftTests {
+
+    private static final String POSITION_3 = Perft.POSITION_3;
+    private static final String POSITION_6 = Perft.POSITION_6;
+    private static final String PROMOTIONS = Perft.PROMOTIONS;
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        assertPerft(new ChessGame(), 20, 400, 8902, 197281);
+    }
+
+    @Test
+    @DisplayName("Reference Position 3")
+    public void position3() {
+        // The published depth 3 count of 2812 includes 2 en passant captures
+        assertPerft(ChessGame.fromFen(POSITION_3), 14, 191, 2810);
+    }
+
+    @Test
+    @DisplayName("Reference Position 6")
+    public void position6() {
+        assertPerft(ChessGame.fromFen(POSITION_6), 46, 2079, 89890);
+    }
+
+    @Test
+    @DisplayName("Promotions")
+    public void promotions() {
+        assertPerft(ChessGame.fromFen(PROMOTIONS), 24, 496, 9483, 182838);
+    }
+
+    @Test
+    @DisplayName("Divide Matches Perft")
+    public void divide() {
+        ChessGame game = ChessGame.fromFen(POSITION_6);
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+
+        Assertions.assertEquals(46, counts.size(), "Divide should have one entry per legal first move");
+        Assertions.assertEquals(89890, counts.values().stream().mapToLong(Long::longValue).sum(),
+                "Divide counts should add up to the perft count");
+    }
+
+    @Test
+    @DisplayName("Collection API Matches Packed Moves")
+    public void collectionApi() {
+        ChessGame game = ChessGame.fromFen(POSITION_6);
+        Assertions.assertEquals(Perft.perft(game, 3), collectionPerft(game, 3),
+                "validMoves and allValidMoves disagree");
+    }
+
+    private static void assertPerft(ChessGame game, long... expected) {
+        ChessBoard before = copy(game.getBoard());
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth), "Wrong node count at depth " + depth);
+        }
+        Assertions.assertEquals(before, game.getBoard(), "Perft should leave the board as it found it");
+    }
+
+    private static long collectionPerft(ChessGame game, int depth) {
+        long nodes = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+                    continue;
+                }
+
+                Collection<ChessMove> moves = game.validMoves(position);
+                if (depth == 1) {
+                    nodes += moves.size();
+                    continue;
+                }
+                for (ChessMove move : moves) {
+                    game.makeMove(move.pack());
+                    nodes += collectionPerft(game, depth - 1);
+                    game.unmakeMove();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static ChessBoard copy(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                copy.addPiece(position, board.getPiece(position));
+            }
+        }
+        return copy;
+    }
+}
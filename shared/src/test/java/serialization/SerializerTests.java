@@ -0,0 +1,70 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SerializerTests {
+
+    @Test
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        String json = Serializer.toJson(game);
+        Assertions.assertEquals(
+                "{\"teamTurn\":\"BLACK\",\"board\":\"rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR\",\"gameOver\":false}", json);
+        Assertions.assertEquals(game, Serializer.fromJson(json, ChessGame.class), "Parsed game differs");
+    }
+
+    @Test
+    @DisplayName("Game Without Board Starts At The Beginning")
+    public void gameWithoutBoard() {
+        ChessGame game = Serializer.fromJson("{\"teamTurn\":\"BLACK\",\"gameOver\":true}", ChessGame.class);
+
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertTrue(game.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Moves Match Reflective Gson")
+    public void movesMatchReflection() {
+        ChessMove move = new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 2), ChessPiece.PieceType.QUEEN);
+        ChessMove plain = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+        // Clients built on plain Gson must still be understood
+        Assertions.assertEquals(new Gson().toJson(move), Serializer.toJson(move));
+        Assertions.assertEquals(new Gson().toJson(plain), Serializer.toJson(plain));
+        Assertions.assertEquals(move, Serializer.fromJson(new Gson().toJson(move), ChessMove.class));
+        Assertions.assertSame(ChessPosition.of(4, 5),
+                Serializer.fromJson(Serializer.toJson(plain), ChessMove.class).getEndPosition(),
+                "Positions should be read as the shared instances");
+    }
+
+    @Test
+    @DisplayName("Pieces Match Reflective Gson")
+    public void piecesMatchReflection() {
+        ChessPiece piece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+
+        Assertions.assertEquals(new Gson().toJson(piece), Serializer.toJson(piece));
+        Assertions.assertSame(piece, Serializer.fromJson(Serializer.toJson(piece), ChessPiece.class));
+    }
+
+    @Test
+    @DisplayName("Bad Input Is Rejected")
+    public void badInput() {
+        Assertions.assertThrows(JsonParseException.class,
+                () -> Serializer.fromJson("{\"teamTurn\":\"WHITE\",\"board\":\"8/8\"}", ChessGame.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> Serializer.fromJson("{\"pieceColor\":\"RED\",\"type\":\"KING\"}", ChessPiece.class));
+    }
+}